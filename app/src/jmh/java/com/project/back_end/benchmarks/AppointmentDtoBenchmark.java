@@ -0,0 +1,80 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Appointment -> AppointmentDTO: mapping loaded entities in memory versus the JPQL constructor projection
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentDtoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Entities {
+        @Param({"10", "1000"})
+        int count;
+
+        List<Appointment> appointments;
+
+        @Setup(Level.Trial)
+        public void build() {
+            Doctor doctor = new Doctor();
+            doctor.setId(1L);
+            doctor.setName("Doctor 1");
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+            appointments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Patient p = new Patient();
+                p.setId((long) i);
+                p.setName("Patient " + i);
+                p.setEmail("patient" + i + "@example.com");
+                p.setPhone(String.format("556%07d", i));
+                p.setAddress(i + " Main Street");
+                Appointment a = new Appointment();
+                a.setId((long) i);
+                a.setDoctor(doctor);
+                a.setPatient(p);
+                a.setAppointmentTime(start.plusHours(i));
+                appointments.add(a);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> mapEntities(Entities entities) {
+        List<AppointmentDTO> result = new ArrayList<>(entities.appointments.size());
+        for (Appointment a : entities.appointments) {
+            Doctor d = a.getDoctor();
+            Patient p = a.getPatient();
+            result.add(new AppointmentDTO(a.getId(), d.getId(), d.getName(), p.getId(), p.getName(),
+                    p.getEmail(), p.getPhone(), p.getAddress(), a.getAppointmentTime(), a.getStatus()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> projectDoctorDay(ClinicState state) {
+        return state.appointmentService.getAppointments(state.busyDoctorId, state.day, null);
+    }
+}
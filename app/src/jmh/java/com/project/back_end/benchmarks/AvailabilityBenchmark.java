@@ -0,0 +1,33 @@
+package com.project.back_end.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// DoctorService.getDoctorAvailabilitySlots with the day already indexed, and with a reload from H2 on every call
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Benchmark
+    public List<LocalTime> indexedDay(ClinicState state) {
+        return state.doctorService.getDoctorAvailabilitySlots(state.busyDoctorId, state.day);
+    }
+
+    @Benchmark
+    public List<LocalTime> reloadedDay(ClinicState state) {
+        state.availabilityIndex.evictDoctor(state.busyDoctorId);
+        return state.doctorService.getDoctorAvailabilitySlots(state.busyDoctorId, state.day);
+    }
+}
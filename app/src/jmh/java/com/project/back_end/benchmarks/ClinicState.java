@@ -0,0 +1,202 @@
+package com.project.back_end.benchmarks;
+
+/*
+  Shared benchmark fixture.
+  1. Boots the service layer once per fork against H2 in MySQL mode; no web server is started.
+  2. Mongo auto-configuration is left out: none of the benchmarked paths touch the Mongo repositories.
+     Beans that write to Mongo in the background (patient log, ratings) get a no-op MongoTemplate,
+     and the prescription archiver, which needs the Mongo repositories, is a mock.
+  3. Seeds doctors across several specialties, patients and a booked day, then exposes the beans.
+*/
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.AvailabilityIndex;
+import com.project.back_end.services.DoctorRatingService;
+import com.project.back_end.services.DoctorSearchIndex;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.IdAllocator;
+import com.project.back_end.services.PatientLogWriter;
+import com.project.back_end.services.PatientService;
+import com.project.back_end.services.PrescriptionArchiver;
+import com.project.back_end.services.Service;
+import com.project.back_end.services.TokenService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class ClinicState {
+
+    static final int DOCTORS = 200;
+    static final int PATIENTS = 500;
+    static final String[] SPECIALTIES = {
+            "Cardiologist", "Dermatologist", "Neurologist", "Pediatrician",
+            "Orthopedic", "Gynecologist", "Psychiatrist", "Dentist"
+    };
+
+    public ConfigurableApplicationContext context;
+    public DoctorService doctorService;
+    public PatientService patientService;
+    public AppointmentService appointmentService;
+    public AvailabilityIndex availabilityIndex;
+    public TokenService tokenService;
+    public Service sharedService;
+
+    public Long busyDoctorId;
+    public Long patientId;
+    public String patientEmail;
+    public LocalDate day;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN");
+        doctorService = context.getBean(DoctorService.class);
+        patientService = context.getBean(PatientService.class);
+        appointmentService = context.getBean(AppointmentService.class);
+        availabilityIndex = context.getBean(AvailabilityIndex.class);
+        tokenService = context.getBean(TokenService.class);
+        sharedService = context.getBean(Service.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    private void seed() {
+        DoctorRepository doctors = context.getBean(DoctorRepository.class);
+        PatientRepository patients = context.getBean(PatientRepository.class);
+        AppointmentRepository appointments = context.getBean(AppointmentRepository.class);
+
+        List<Doctor> savedDoctors = doctors.saveAll(seedDoctors());
+        List<Patient> savedPatients = patients.saveAll(seedPatients());
+        Doctor busy = savedDoctors.get(0);
+        busyDoctorId = busy.getId();
+        patientId = savedPatients.get(0).getId();
+        patientEmail = savedPatients.get(0).getEmail();
+        day = LocalDate.now().plusDays(1);
+
+        // Every other slot of the busy doctor's day is taken
+        List<Appointment> booked = new ArrayList<>();
+        int p = 0;
+        for (int hour = 9; hour < 17; hour += 2) {
+            Appointment a = new Appointment();
+            a.setDoctor(busy);
+            a.setPatient(savedPatients.get(p++));
+            a.setAppointmentTime(day.atTime(hour, 0));
+            booked.add(a);
+        }
+        appointments.saveAll(booked);
+    }
+
+    private static List<Doctor> seedDoctors() {
+        List<Doctor> list = new ArrayList<>(DOCTORS);
+        for (int i = 0; i < DOCTORS; i++) {
+            Doctor d = new Doctor();
+            d.setName("Doctor " + i);
+            d.setSpecialty(SPECIALTIES[i % SPECIALTIES.length]);
+            d.setEmail("doctor" + i + "@clinic.com");
+            d.setPassword("secret123");
+            d.setPhone(String.format("555%07d", i));
+            List<Schedule> times = new ArrayList<>();
+            if (i % 3 != 2) times.add(schedule(9, 12));
+            if (i % 3 != 0) times.add(schedule(13, 17));
+            d.setAvailableTimes(times);
+            list.add(d);
+        }
+        return list;
+    }
+
+    private static List<Patient> seedPatients() {
+        List<Patient> list = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient p = new Patient();
+            p.setName("Patient " + i);
+            p.setEmail("patient" + i + "@example.com");
+            p.setPassword("secret123");
+            p.setPhone(String.format("556%07d", i));
+            p.setAddress(i + " Main Street");
+            list.add(p);
+        }
+        return list;
+    }
+
+    private static Schedule schedule(int from, int to) {
+        Schedule s = new Schedule();
+        s.setStartTime(LocalTime.of(from, 0));
+        s.setEndTime(LocalTime.of(to, 0));
+        return s;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            MongoAutoConfiguration.class,
+            MongoDataAutoConfiguration.class,
+            MongoRepositoriesAutoConfiguration.class
+    })
+    @EntityScan("com.project.back_end.models")
+    @EnableJpaRepositories("com.project.back_end.repo")
+    @Import({Service.class, TokenService.class, DoctorService.class, PatientService.class,
+            AppointmentService.class, AvailabilityIndex.class, DoctorSearchIndex.class, PatientLogWriter.class,
+            DoctorRatingService.class, IdAllocator.class})
+    static class BenchmarkApplication {
+
+        @Bean
+        MongoTemplate mongoTemplate() {
+            return Mockito.mock(MongoTemplate.class);
+        }
+
+        @Bean
+        PrescriptionArchiver prescriptionArchiver() {
+            return Mockito.mock(PrescriptionArchiver.class);
+        }
+
+        // Scheduling is not enabled here, so PatientLogWriter gets its tick scheduler from here. Declaring it makes
+        // Boot's task executor back off, so the application executor is declared as well.
+        @Bean
+        ThreadPoolTaskScheduler taskScheduler() {
+            return new ThreadPoolTaskScheduler();
+        }
+
+        @Bean
+        ThreadPoolTaskExecutor applicationTaskExecutor() {
+            return new ThreadPoolTaskExecutor();
+        }
+    }
+}
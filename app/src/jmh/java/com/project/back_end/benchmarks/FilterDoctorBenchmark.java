@@ -0,0 +1,41 @@
+package com.project.back_end.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Service.filterDoctor for the filter combinations the doctor search page sends
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterDoctorBenchmark {
+
+    @Benchmark
+    public Map<String, Object> byName(ClinicState state) {
+        return state.sharedService.filterDoctor("tor 1", null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> bySpecialityAndTime(ClinicState state) {
+        return state.sharedService.filterDoctor(null, "PM", "Cardiologist");
+    }
+
+    @Benchmark
+    public Map<String, Object> allCriteria(ClinicState state) {
+        return state.sharedService.filterDoctor("Doctor 1", "AM", "Dermatologist");
+    }
+
+    @Benchmark
+    public Map<String, Object> noCriteria(ClinicState state) {
+        return state.sharedService.filterDoctor("null", "null", "null");
+    }
+}
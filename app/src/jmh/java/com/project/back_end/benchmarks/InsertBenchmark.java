@@ -0,0 +1,117 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Bulk registration and booking (saveAll of BATCH rows), before and after the move off IDENTITY ids.
+// "identity" restores the old mapping through META-INF/identity-ids.xml, which stops Hibernate from batching;
+// "pooled" is the shipped table generator with hibernate.jdbc.batch_size. Gains grow with the round-trip
+// cost, so an in-memory H2 understates what MySQL over the network sees.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    static final int BATCH = 100;
+
+    @State(Scope.Benchmark)
+    public static class Inserts {
+
+        @Param({"identity", "pooled"})
+        public String ids;
+
+        ConfigurableApplicationContext context;
+        PatientRepository patients;
+        AppointmentRepository appointments;
+        Doctor doctor;
+        Patient patient;
+        int next;
+        LocalDateTime firstSlot;
+
+        @Setup(Level.Trial)
+        public void start() {
+            List<String> args = new ArrayList<>(List.of(
+                    "--spring.main.web-application-type=none",
+                    "--spring.datasource.url=jdbc:h2:mem:insert-" + ids + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--logging.level.root=WARN"));
+            if ("identity".equals(ids)) args.add("--spring.jpa.mapping-resources=META-INF/identity-ids.xml");
+            context = new SpringApplicationBuilder(ClinicState.BenchmarkApplication.class).run(args.toArray(String[]::new));
+            patients = context.getBean(PatientRepository.class);
+            appointments = context.getBean(AppointmentRepository.class);
+            Doctor d = new Doctor();
+            d.setName("Doctor Bulk");
+            d.setSpecialty("Cardiologist");
+            d.setEmail("bulk@clinic.com");
+            d.setPassword("secret123");
+            d.setPhone("5550000000");
+            doctor = context.getBean(DoctorRepository.class).save(d);
+            patient = patients.save(patient(-1));
+            firstSlot = LocalDateTime.now().plusYears(1).withNano(0);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<Patient> registerPatients(Inserts state) {
+        List<Patient> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) batch.add(patient(state.next++));
+        return state.patients.saveAll(batch);
+    }
+
+    // Every appointment takes its own minute, so appointment_time_index never rejects one
+    @Benchmark
+    public List<Appointment> bookAppointments(Inserts state) {
+        List<Appointment> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            Appointment a = new Appointment();
+            a.setDoctor(state.doctor);
+            a.setPatient(state.patient);
+            a.setAppointmentTime(state.firstSlot.plusMinutes(state.next++));
+            batch.add(a);
+        }
+        return state.appointments.saveAll(batch);
+    }
+
+    private static Patient patient(int i) {
+        Patient p = new Patient();
+        p.setName("Patient " + i);
+        p.setEmail("bulk" + i + "@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5560000000");
+        p.setAddress(i + " Main Street");
+        return p;
+    }
+}
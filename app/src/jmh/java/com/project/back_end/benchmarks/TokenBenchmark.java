@@ -0,0 +1,50 @@
+package com.project.back_end.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// TokenService: signing a token, validating a token already in the verified cache, and a sign + first validation
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+        String patientToken;
+
+        @Setup(Level.Trial)
+        public void sign(ClinicState state) {
+            patientToken = state.tokenService.generateToken(state.patientEmail, "patient", state.patientId);
+        }
+    }
+
+    @Benchmark
+    public String generate(ClinicState state) {
+        return state.tokenService.generateToken(state.patientEmail, "patient", state.patientId);
+    }
+
+    @Benchmark
+    public boolean validateCached(ClinicState state, Tokens tokens) {
+        return state.tokenService.validateToken(tokens.patientToken, "patient");
+    }
+
+    @Benchmark
+    public boolean generateAndValidate(ClinicState state) {
+        String token = state.tokenService.generateToken(state.patientEmail, "patient", state.patientId);
+        return state.tokenService.validateToken(token, "patient");
+    }
+}
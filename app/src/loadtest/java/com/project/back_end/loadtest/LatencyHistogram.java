@@ -0,0 +1,72 @@
+package com.project.back_end.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free log-linear latency histogram in microseconds: exact below 64us, then 32 sub-buckets
+// per power of two (about 3% relative error), up to roughly 19 hours.
+final class LatencyHistogram {
+
+    private static final int LINEAR = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int MAX_SHIFT = 30;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + MAX_SHIFT * SUB_BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    void record(long micros) {
+        long v = Math.max(0, micros);
+        counts.incrementAndGet(index(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    // Value at the given percentile (0-100), reported as the midpoint of its bucket
+    long percentile(double p) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(n * p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(midpoint(i), max.get());
+        }
+        return max.get();
+    }
+
+    Map<String, Object> summary() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long n = total.get();
+        m.put("count", n);
+        m.put("meanMicros", n == 0 ? 0 : sum.get() / n);
+        m.put("p50Micros", percentile(50));
+        m.put("p90Micros", percentile(90));
+        m.put("p99Micros", percentile(99));
+        m.put("p999Micros", percentile(99.9));
+        m.put("maxMicros", max.get());
+        return m;
+    }
+
+    private static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - 5;
+        if (shift > MAX_SHIFT) return LINEAR + MAX_SHIFT * SUB_BUCKETS - 1;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((v >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long midpoint(int index) {
+        if (index < LINEAR) return index;
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long lower = (long) ((index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
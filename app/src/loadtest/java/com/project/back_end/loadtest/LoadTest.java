@@ -0,0 +1,436 @@
+package com.project.back_end.loadtest;
+
+/*
+  End-to-end load test for the REST API.
+  1. Starts an in-memory Mongo wire-protocol server and boots the full application on a random port
+     against H2 in MySQL mode, so no external store is needed.
+  2. Seeds doctors, patients and appointments through the repositories, then logs the test
+     users in over HTTP to obtain real tokens.
+  3. Runs a closed loop of concurrent virtual users on the async java.net.http client, picking each
+     request from a weighted mix: patient login, doctor filter, availability, booking,
+     prescription save and prescription get.
+  4. Prints per-endpoint latency percentiles and error rates and writes them as JSON. With --baseline
+     the run is compared against an earlier result and fails when an endpoint's p99 regressed past
+     --max-p99-regression percent.
+  5. --mode=virtual boots the app with the virtual-threads profile (Java 21+ runtime required); run once per
+     mode on the same workload and compare the two result files with --baseline.
+
+  Usage: mvn -Ploadtest -DskipTests verify -Dload.args="--duration=60 --concurrency=64 --mode=platform"
+*/
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.BackEndApplication;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadTest {
+
+    private static final int DOCTORS = 200;
+    private static final int PATIENTS = 1000;
+    private static final int SEEDED_APPOINTMENTS = 5000;
+    private static final int LOGGED_IN_PATIENTS = 200;
+    private static final int LOGGED_IN_DOCTORS = 20;
+    private static final String PASSWORD = "secret123";
+    private static final String[] SPECIALTIES = {
+            "Cardiologist", "Dermatologist", "Neurologist", "Pediatrician",
+            "Orthopedic", "Gynecologist", "Psychiatrist", "Dentist"
+    };
+
+    // Request mix, weights are relative
+    enum Endpoint {
+        PATIENT_LOGIN(10),
+        DOCTOR_FILTER(30),
+        AVAILABILITY(30),
+        BOOKING(15),
+        PRESCRIPTION_SAVE(7),
+        PRESCRIPTION_GET(8);
+
+        final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<Endpoint, Stats> stats = new LinkedHashMap<>();
+    private final Endpoint[] weighted;
+
+    private final String baseUrl;
+    private final List<String> patientTokens = new ArrayList<>();
+    private final List<String> doctorTokens = new ArrayList<>();
+    private final List<Long> doctorIds = new ArrayList<>();
+    private final List<Long> appointmentIds = new ArrayList<>();
+    private final AtomicInteger nextPrescription = new AtomicInteger();
+
+    private LoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+        List<Endpoint> slots = new ArrayList<>();
+        for (Endpoint e : Endpoint.values()) {
+            stats.put(e, new Stats());
+            for (int i = 0; i < e.weight; i++) slots.add(e);
+        }
+        this.weighted = slots.toArray(new Endpoint[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        String output = options.getOrDefault("output", "target/loadtest-result.json");
+        String baseline = options.get("baseline");
+        double maxRegression = Double.parseDouble(options.getOrDefault("max-p99-regression", "20"));
+        String mode = options.getOrDefault("mode", "platform");
+        if (!mode.equals("platform") && !mode.equals("virtual")) {
+            throw new IllegalArgumentException("--mode must be platform or virtual");
+        }
+        if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("--mode=virtual needs a Java 21+ runtime, this is Java " + Runtime.version().feature());
+        }
+
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongo.bind();
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackEndApplication.class).run(
+                "--spring.profiles.active=" + (mode.equals("virtual") ? "virtual-threads" : "default"),
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/cms",
+                "--logging.level.root=WARN",
+                "--logging.level.web=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.springframework.web.servlet.mvc.method.annotation=WARN");
+        int exitCode = 0;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest test = new LoadTest("http://localhost:" + port);
+            test.seed(context);
+            test.login();
+
+            System.out.printf("Warming up for %ds with %d users%n", warmup, concurrency);
+            test.run(concurrency, warmup);
+            test.reset();
+            System.out.printf("Measuring for %ds with %d users%n", duration, concurrency);
+            test.run(concurrency, duration);
+
+            Map<String, Object> result = test.report(concurrency, duration);
+            result.put("mode", mode);
+            File out = new File(output);
+            if (out.getParentFile() != null) out.getParentFile().mkdirs();
+            test.json.writerWithDefaultPrettyPrinter().writeValue(out, result);
+            System.out.println("Results written to " + out.getPath());
+            if (baseline != null && !test.compare(new File(baseline), result, maxRegression)) exitCode = 1;
+        } finally {
+            context.close();
+            mongo.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        DoctorRepository doctors = context.getBean(DoctorRepository.class);
+        PatientRepository patients = context.getBean(PatientRepository.class);
+        AppointmentRepository appointments = context.getBean(AppointmentRepository.class);
+
+        List<Doctor> newDoctors = new ArrayList<>(DOCTORS);
+        for (int i = 0; i < DOCTORS; i++) {
+            Doctor d = new Doctor();
+            d.setName("Doctor " + i);
+            d.setSpecialty(SPECIALTIES[i % SPECIALTIES.length]);
+            d.setEmail("doctor" + i + "@clinic.com");
+            d.setPassword(PASSWORD);
+            d.setPhone(String.format("555%07d", i));
+            List<Schedule> times = new ArrayList<>();
+            if (i % 3 != 2) times.add(schedule(9, 12));
+            if (i % 3 != 0) times.add(schedule(13, 17));
+            d.setAvailableTimes(times);
+            newDoctors.add(d);
+        }
+        List<Doctor> savedDoctors = doctors.saveAll(newDoctors);
+        savedDoctors.forEach(d -> doctorIds.add(d.getId()));
+
+        List<Patient> newPatients = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient p = new Patient();
+            p.setName("Patient " + i);
+            p.setEmail("patient" + i + "@example.com");
+            p.setPassword(PASSWORD);
+            p.setPhone(String.format("556%07d", i));
+            p.setAddress(i + " Main Street");
+            newPatients.add(p);
+        }
+        List<Patient> savedPatients = patients.saveAll(newPatients);
+
+        // Visits that prescriptions are written against, placed after the booking window
+        // (Appointment only accepts future times) so they never collide with booked slots
+        LocalDateTime start = LocalDate.now().plusDays(60).atTime(9, 0);
+        List<Appointment> seeded = new ArrayList<>(SEEDED_APPOINTMENTS);
+        for (int i = 0; i < SEEDED_APPOINTMENTS; i++) {
+            Appointment a = new Appointment();
+            a.setDoctor(savedDoctors.get(i % DOCTORS));
+            a.setPatient(savedPatients.get(i % PATIENTS));
+            a.setAppointmentTime(start.plusDays(i / DOCTORS).plusHours((i / DOCTORS) % 8));
+            seeded.add(a);
+        }
+        appointments.saveAll(seeded).forEach(a -> appointmentIds.add(a.getId()));
+    }
+
+    private void login() throws Exception {
+        for (int i = 0; i < LOGGED_IN_PATIENTS; i++) {
+            patientTokens.add(token("/patient/login", "patient" + i + "@example.com"));
+        }
+        for (int i = 0; i < LOGGED_IN_DOCTORS; i++) {
+            doctorTokens.add(token("/doctor/login", "doctor" + i + "@clinic.com"));
+        }
+    }
+
+    private String token(String path, String email) throws Exception {
+        HttpResponse<String> response = http.send(post(path, Map.of("email", email, "password", PASSWORD)),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + email + ": " + response.statusCode() + " " + response.body());
+        }
+        return json.readTree(response.body()).get("token").asText();
+    }
+
+    private void run(int concurrency, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) next(deadline, finished);
+        finished.await();
+    }
+
+    // One virtual user: issue a request, record it, and chain the next one until the deadline
+    private void next(long deadline, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        Endpoint endpoint = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+        HttpRequest request;
+        try {
+            request = request(endpoint);
+        } catch (Exception e) {
+            stats.get(endpoint).failure();
+            next(deadline, finished);
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> call = http.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        call.whenComplete((response, error) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            Stats s = stats.get(endpoint);
+            if (error != null) s.failure();
+            else s.record(micros, response.statusCode());
+            next(deadline, finished);
+        });
+    }
+
+    private HttpRequest request(Endpoint endpoint) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (endpoint) {
+            case PATIENT_LOGIN -> {
+                String email = "patient" + random.nextInt(PATIENTS) + "@example.com";
+                return post("/patient/login", Map.of("email", email, "password", PASSWORD));
+            }
+            case DOCTOR_FILTER -> {
+                String name = random.nextBoolean() ? "Doctor " + random.nextInt(20) : "null";
+                String time = random.nextInt(3) == 0 ? "null" : (random.nextBoolean() ? "AM" : "PM");
+                String speciality = random.nextBoolean() ? SPECIALTIES[random.nextInt(SPECIALTIES.length)] : "null";
+                return get("/doctor/filter/" + encode(name) + "/" + time + "/" + speciality);
+            }
+            case AVAILABILITY -> {
+                LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(30));
+                return get("/doctor/availability/patient/" + pick(doctorIds) + "/" + date + "/" + pick(patientTokens));
+            }
+            case BOOKING -> {
+                LocalDateTime time = LocalDate.now().plusDays(1 + random.nextInt(30)).atTime(9 + random.nextInt(8), 0);
+                Map<String, Object> body = new HashMap<>();
+                body.put("doctor", Map.of("id", pick(doctorIds)));
+                body.put("patient", Map.of("id", 0));
+                body.put("appointmentTime", time.toString());
+                return post("/appointments/" + pick(patientTokens), body);
+            }
+            case PRESCRIPTION_SAVE -> {
+                // Walks the seeded appointments; once they are used up saves turn into duplicate rejections
+                Long appointmentId = appointmentIds.get(nextPrescription.getAndIncrement() % appointmentIds.size());
+                Map<String, Object> body = new HashMap<>();
+                body.put("patientName", "Patient");
+                body.put("appointmentId", appointmentId);
+                body.put("medications", List.of("Paracetamol"));
+                body.put("dosage", "500mg twice a day");
+                body.put("doctorNotes", "Load test prescription");
+                return post("/prescription/" + pick(doctorTokens), body);
+            }
+            case PRESCRIPTION_GET -> {
+                int written = Math.max(1, Math.min(nextPrescription.get(), appointmentIds.size()));
+                return get("/prescription/" + appointmentIds.get(random.nextInt(written)) + "/" + pick(doctorTokens));
+            }
+            default -> throw new IllegalArgumentException(endpoint.name());
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) throws Exception {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private void reset() {
+        stats.replaceAll((e, s) -> new Stats());
+    }
+
+    private Map<String, Object> report(int concurrency, int seconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-18s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s",
+                "errors%", "4xx%", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (var entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Map<String, Object> m = s.histogram.summary();
+            long total = s.histogram.count() + s.failures.get();
+            m.put("throughputPerSecond", total / (double) seconds);
+            m.put("errors", s.errors());
+            m.put("errorRate", total == 0 ? 0.0 : s.errors() / (double) total);
+            m.put("clientErrors", s.clientErrors.get());
+            m.put("statusCodes", s.statusCodes());
+            endpoints.put(entry.getKey().name(), m);
+            System.out.printf("%-18s %9d %9.1f %8.2f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey().name(), total,
+                    total / (double) seconds,
+                    total == 0 ? 0.0 : 100.0 * s.errors() / total,
+                    total == 0 ? 0.0 : 100.0 * s.clientErrors.get() / total,
+                    s.histogram.percentile(50) / 1000.0, s.histogram.percentile(90) / 1000.0,
+                    s.histogram.percentile(99) / 1000.0, s.histogram.percentile(99.9) / 1000.0,
+                    (long) m.get("maxMicros") / 1000.0);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("javaVersion", Runtime.version().toString());
+        result.put("concurrency", concurrency);
+        result.put("durationSeconds", seconds);
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    // Prints p99 deltas against an earlier run; false when any endpoint regressed past the limit
+    private boolean compare(File baselineFile, Map<String, Object> current, double maxRegressionPercent) throws Exception {
+        JsonNode baseline = json.readTree(baselineFile).get("endpoints");
+        boolean ok = true;
+        System.out.printf("%nBaseline comparison (%s), p99 regression limit %.0f%%%n", baselineFile.getPath(), maxRegressionPercent);
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) current.get("endpoints");
+        for (var entry : endpoints.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null || before.get("p99Micros").asLong() == 0) continue;
+            long was = before.get("p99Micros").asLong();
+            long now = (long) entry.getValue().get("p99Micros");
+            double change = 100.0 * (now - was) / was;
+            boolean regressed = change > maxRegressionPercent;
+            ok &= !regressed;
+            System.out.printf("%-18s p99 %9.2fms -> %9.2fms (%+.1f%%)%s%n", entry.getKey(), was / 1000.0, now / 1000.0,
+                    change, regressed ? "  REGRESSION" : "");
+        }
+        return ok;
+    }
+
+    private static <T> T pick(List<T> list) {
+        return list.get(ThreadLocalRandom.current().nextInt(list.size()));
+    }
+
+    private static String encode(String v) {
+        return v.replace(" ", "%20");
+    }
+
+    private static Schedule schedule(int from, int to) {
+        Schedule s = new Schedule();
+        s.setStartTime(LocalTime.of(from, 0));
+        s.setEndTime(LocalTime.of(to, 0));
+        return s;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    // Per-endpoint counters; 5xx responses and transport failures count as errors, 4xx separately
+    private static final class Stats {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong serverErrors = new AtomicLong();
+        final AtomicLong clientErrors = new AtomicLong();
+        final Map<Integer, AtomicLong> codes = new ConcurrentHashMap<>();
+
+        void record(long micros, int status) {
+            histogram.record(micros);
+            codes.computeIfAbsent(status, k -> new AtomicLong()).incrementAndGet();
+            if (status >= 500) serverErrors.incrementAndGet();
+            else if (status >= 400) clientErrors.incrementAndGet();
+        }
+
+        void failure() {
+            failures.incrementAndGet();
+        }
+
+        long errors() {
+            return failures.get() + serverErrors.get();
+        }
+
+        Map<String, Long> statusCodes() {
+            Map<String, Long> m = new TreeMap<>();
+            codes.forEach((k, v) -> m.put(String.valueOf(k), v.get()));
+            return m;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.project.back_end.DTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+// One keyset page of appointments ordered by (appointmentTime, id). nextCursor is null on the last page.
+public class AppointmentPageDTO {
+
+    // Position before the first appointment; lower than any real appointment time
+    public static final LocalDateTime START_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final List<AppointmentDTO> appointments;
+    private final String nextCursor;
+
+    public AppointmentPageDTO(List<AppointmentDTO> appointments, String nextCursor) {
+        this.appointments = appointments;
+        this.nextCursor = nextCursor;
+    }
+
+    // Builds a page from a query that fetched one row more than the page size
+    public static AppointmentPageDTO of(List<AppointmentDTO> rows, int size) {
+        if (rows.size() <= size) return new AppointmentPageDTO(rows, null);
+        List<AppointmentDTO> page = rows.subList(0, size);
+        AppointmentDTO last = page.get(size - 1);
+        return new AppointmentPageDTO(page, encodeCursor(last.getAppointmentTime(), last.getId()));
+    }
+
+    public static String encodeCursor(LocalDateTime appointmentTime, Long id) {
+        String raw = appointmentTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A missing cursor means the first page; throws InvalidCursorException for cursors we did not issue
+    public static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return new Cursor(START_TIME, 0L);
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    public static final class Cursor {
+        private final LocalDateTime appointmentTime;
+        private final Long id;
+
+        public Cursor(LocalDateTime appointmentTime, Long id) {
+            this.appointmentTime = appointmentTime;
+            this.id = id;
+        }
+
+        public LocalDateTime getAppointmentTime() {
+            return appointmentTime;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    public List<AppointmentDTO> getAppointments() {
+        return appointments;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,36 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+// One doctor's availability over a date range. "slots" lists the doctor's slot start times
+// (HH:mm) once; each entry of "days" is a hex bitmask where bit i set means slots[i] is free.
+public class DoctorAvailabilityDTO {
+    private Long doctorId;
+    private String doctorName;
+    private List<String> slots;
+    private Map<String, String> days;
+
+    public DoctorAvailabilityDTO(Long doctorId, String doctorName, List<String> slots, Map<String, String> days) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.slots = slots;
+        this.days = days;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public List<String> getSlots() {
+        return slots;
+    }
+
+    public Map<String, String> getDays() {
+        return days;
+    }
+}
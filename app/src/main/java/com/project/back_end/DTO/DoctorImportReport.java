@@ -0,0 +1,36 @@
+package com.project.back_end.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk doctor import: totals plus one entry per rejected row (rows are numbered from 1, header excluded)
+public class DoctorImportReport {
+
+    private int created;
+    private int failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void created(int count) {
+        created += count;
+    }
+
+    public void reject(int row, String email, List<String> messages) {
+        failed++;
+        errors.add(new RowError(row, email, messages));
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public record RowError(int row, String email, List<String> errors) {
+    }
+}
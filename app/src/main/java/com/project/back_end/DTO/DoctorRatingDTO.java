@@ -0,0 +1,37 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.DoctorRating;
+
+// Immutable rating snapshot attached to doctor listings; stars[i] is the number of (i + 1)-star reviews
+public class DoctorRatingDTO {
+    private final double average;
+    private final long count;
+    private final long[] stars;
+
+    public DoctorRatingDTO(double average, long count, long[] stars) {
+        this.average = average;
+        this.count = count;
+        this.stars = stars;
+    }
+
+    public static DoctorRatingDTO of(DoctorRating r) {
+        long[] stars = new long[5];
+        if (r.getStars() != null) {
+            for (int i = 0; i < stars.length; i++) stars[i] = r.getStars().getOrDefault(String.valueOf(i + 1), 0L);
+        }
+        double average = r.getCount() == 0 ? 0 : Math.round(r.getSum() * 100.0 / r.getCount()) / 100.0;
+        return new DoctorRatingDTO(average, r.getCount(), stars);
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long[] getStars() {
+        return stars.clone();
+    }
+}
@@ -0,0 +1,62 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Catalogue view of a doctor: no password, no lazy associations; schedules are attached in one batch per page.
+// rating is null until the doctor has feedback.
+public class DoctorSummary {
+    private Long id;
+    private String name;
+    private String specialty;
+    private String email;
+    private String phone;
+    private List<Schedule> availableTimes = new ArrayList<>();
+    private DoctorRatingDTO rating;
+
+    public DoctorSummary(Long id, String name, String specialty, String email, String phone) {
+        this.id = id;
+        this.name = name;
+        this.specialty = specialty;
+        this.email = email;
+        this.phone = phone;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public List<Schedule> getAvailableTimes() {
+        return availableTimes;
+    }
+
+    public DoctorRatingDTO getRating() {
+        return rating;
+    }
+
+    // Copy carrying the given rating; the schedule list is shared, so this is cheap for cached summaries
+    public DoctorSummary withRating(DoctorRatingDTO rating) {
+        DoctorSummary copy = new DoctorSummary(id, name, specialty, email, phone);
+        copy.availableTimes = availableTimes;
+        copy.rating = rating;
+        return copy;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.back_end.DTO;
+
+// A paging cursor that was not issued by this server; controllers answer it with 400
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(Throwable cause) {
+        super("Invalid cursor", cause);
+    }
+}
@@ -0,0 +1,76 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Message;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+// One keyset page of a conversation, newest first by (timestamp, id). nextCursor is null on the last page.
+public class MessagePageDTO {
+
+    // Position after the newest message; higher than any real (timestamp, id)
+    public static final LocalDateTime END_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+    private static final ObjectId MAX_ID = new ObjectId("ffffffffffffffffffffffff");
+
+    private final List<Message> messages;
+    private final String nextCursor;
+
+    public MessagePageDTO(List<Message> messages, String nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    // Builds a page from a query that fetched one row more than the page size
+    public static MessagePageDTO of(List<Message> rows, int size) {
+        if (rows.size() <= size) return new MessagePageDTO(rows, null);
+        List<Message> page = rows.subList(0, size);
+        Message last = page.get(size - 1);
+        return new MessagePageDTO(page, encodeCursor(last.getTimestamp(), last.getId()));
+    }
+
+    public static String encodeCursor(LocalDateTime timestamp, String id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A missing cursor means the newest page; throws InvalidCursorException for cursors we did not issue
+    public static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return new Cursor(END_TIME, MAX_ID);
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), new ObjectId(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    public static final class Cursor {
+        private final LocalDateTime timestamp;
+        private final ObjectId id;
+
+        public Cursor(LocalDateTime timestamp, ObjectId id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public ObjectId getId() {
+            return id;
+        }
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Patient;
+
+// Patient profile as returned to clients: scalar fields only, no password or medical records
+public class PatientDTO {
+    private Long id;
+    private String name;
+    private String email;
+    private String phone;
+    private String address;
+
+    public PatientDTO(Long id, String name, String email, String phone, String address) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.address = address;
+    }
+
+    public static PatientDTO of(Patient patient) {
+        return new PatientDTO(patient.getId(), patient.getName(), patient.getEmail(),
+                patient.getPhone(), patient.getAddress());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+}
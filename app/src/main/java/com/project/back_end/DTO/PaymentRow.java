@@ -0,0 +1,5 @@
+package com.project.back_end.DTO;
+
+// One WAIT payment as read by a reconciliation chunk, with what settling it needs from its appointment
+public record PaymentRow(Long id, Long appointmentId, int appointmentStatus, Long patientId, Long doctorId) {
+}
@@ -0,0 +1,15 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.ReconciliationRun;
+
+import java.time.LocalDateTime;
+
+// What admins see of a reconciliation run: progress and checkpoint, without the entity's version
+public record ReconciliationStatusDTO(Long id, String status, Long lastPaymentId, long scanned, long settled, int chunks,
+                                      LocalDateTime startedAt, LocalDateTime finishedAt) {
+
+    public static ReconciliationStatusDTO of(ReconciliationRun r) {
+        return new ReconciliationStatusDTO(r.getId(), r.getStatus(), r.getLastPaymentId(), r.getScanned(), r.getSettled(),
+                r.getChunks(), r.getStartedAt(), r.getFinishedAt());
+    }
+}
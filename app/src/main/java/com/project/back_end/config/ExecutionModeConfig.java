@@ -0,0 +1,51 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutionModeConfig {
+
+        private static final Logger log = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+        private final boolean virtualThreads;
+
+        public ExecutionModeConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+                this.virtualThreads = virtualThreads;
+        }
+
+        // Reports the effective request execution mode; the virtual-threads profile silently
+        // does nothing on runtimes older than Java 21, so say so instead
+        @EventListener(ApplicationReadyEvent.class)
+        public void reportExecutionMode() {
+                int runtime = Runtime.version().feature();
+                if (virtualThreads && runtime < 21) {
+                        log.warn("spring.threads.virtual.enabled is set but the runtime is Java {}; requests run on platform threads", runtime);
+                } else {
+                        log.info("Request execution mode: {} threads (Java {})", virtualThreads ? "virtual" : "platform", runtime);
+                }
+        }
+
+        // Mongo connection pool sizing for the virtual-threads profile. Applied after the connection string, so the
+        // configured host and database are kept; unset values leave the driver's (or the URI's) settings alone.
+        @Bean
+        public MongoClientSettingsBuilderCustomizer mongoPoolSizing(
+                        @Value("${clinic.mongodb.pool.max-size:#{null}}") Integer maxSize,
+                        @Value("${clinic.mongodb.pool.min-size:#{null}}") Integer minSize,
+                        @Value("${clinic.mongodb.pool.max-wait:#{null}}") Duration maxWait) {
+                return builder -> builder.applyToConnectionPoolSettings(pool -> {
+                        if (maxSize != null) pool.maxSize(maxSize);
+                        if (minSize != null) pool.minSize(minSize);
+                        if (maxWait != null) pool.maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+                });
+        }
+}
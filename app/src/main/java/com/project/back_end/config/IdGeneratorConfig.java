@@ -0,0 +1,87 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ClinicLocation;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Configuration
+public class IdGeneratorConfig implements SmartInitializingSingleton {
+
+        private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+        // Entities whose ids come from a pooled @TableGenerator
+        private static final List<Class<?>> POOLED_ENTITIES = List.of(Appointment.class, Doctor.class, Patient.class,
+                        ClinicLocation.class);
+
+        private final SessionFactoryImplementor sessionFactory;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+
+        public IdGeneratorConfig(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+                this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+                this.jdbcTemplate = jdbcTemplate;
+                this.transactionTemplate = new TransactionTemplate(transactionManager);
+        }
+
+        // Runs before the web server starts. Tables filled under IDENTITY (or by other nodes) may hold ids past
+        // the stored value: the pooled optimizer's next block is the allocationSize ids ending at next_val + 1,
+        // so next_val is raised to at least max(id) + allocationSize. It only ever moves forwards, which keeps
+        // blocks other running nodes already hold valid.
+        @Override
+        public void afterSingletonsInstantiated() {
+                for (Class<?> type : POOLED_ENTITIES) {
+                        try {
+                                transactionTemplate.executeWithoutResult(s -> advance(type));
+                        } catch (Exception e) {
+                                log.error("Could not align the id generator for {}", type.getSimpleName(), e);
+                        }
+                }
+        }
+
+        private void advance(Class<?> type) {
+                TableGenerator generator = generatorOf(type);
+                var persister = (AbstractEntityPersister) sessionFactory.getMappingMetamodel().getEntityDescriptor(type);
+                Long maxId = jdbcTemplate.queryForObject("select max(" + persister.getIdentifierColumnNames()[0] + ") from "
+                                + persister.getTableName(), Long.class);
+                if (maxId == null) return;
+                long floor = maxId + generator.allocationSize();
+                String table = generator.table();
+                String segment = generator.pkColumnName();
+                String value = generator.valueColumnName();
+                int raised = jdbcTemplate.update("update " + table + " set " + value + " = ? where " + segment + " = ? and "
+                                + value + " < ?", floor, generator.pkColumnValue(), floor);
+                if (raised == 0) {
+                        Integer rows = jdbcTemplate.queryForObject("select count(*) from " + table + " where " + segment + " = ?",
+                                        Integer.class, generator.pkColumnValue());
+                        if (rows == null || rows > 0) return;
+                        jdbcTemplate.update("insert into " + table + " (" + segment + ", " + value + ") values (?, ?)",
+                                        generator.pkColumnValue(), floor);
+                }
+                log.info("Id generator for {} moved to {} (max id {})", type.getSimpleName(), floor, maxId);
+        }
+
+        private static TableGenerator generatorOf(Class<?> type) {
+                try {
+                        TableGenerator generator = type.getDeclaredField("id").getAnnotation(TableGenerator.class);
+                        if (generator == null) throw new IllegalStateException(type.getSimpleName() + ".id has no @TableGenerator");
+                        return generator;
+                } catch (NoSuchFieldException e) {
+                        throw new IllegalStateException(type.getSimpleName() + " has no id field", e);
+                }
+        }
+}
@@ -0,0 +1,16 @@
+package com.project.back_end.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+        // Makes @Timed on the service classes record a clinic.service timer per class and method
+        @Bean
+        public TimedAspect timedAspect(MeterRegistry registry) {
+                return new TimedAspect(registry);
+        }
+}
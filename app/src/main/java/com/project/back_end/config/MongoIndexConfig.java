@@ -0,0 +1,56 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.FileAttachment;
+import com.project.back_end.models.Message;
+import com.project.back_end.models.PatientFeedBack;
+import com.project.back_end.models.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.util.List;
+
+@Configuration
+public class MongoIndexConfig implements SmartInitializingSingleton {
+
+        private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+        // Documents whose @Indexed definitions are created on startup
+        private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Prescription.class, Message.class, FileAttachment.class,
+                        PatientFeedBack.class);
+
+        private final MongoTemplate mongoTemplate;
+
+        public MongoIndexConfig(MongoTemplate mongoTemplate) {
+                this.mongoTemplate = mongoTemplate;
+        }
+
+        // Runs before the web server starts. Unique indexes are what keeps duplicate prescriptions and ratings out,
+        // so failing to create one (e.g. existing duplicates) fails startup; other indexes only cost speed and are logged.
+        @Override
+        public void afterSingletonsInstantiated() {
+                ensureIndexes();
+        }
+
+        public void ensureIndexes() {
+                var resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+                for (Class<?> type : INDEXED_DOCUMENTS) {
+                        IndexOperations ops = mongoTemplate.indexOps(type);
+                        resolver.resolveIndexFor(type).forEach(index -> {
+                                try {
+                                        ops.ensureIndex(index);
+                                } catch (Exception e) {
+                                        if (Boolean.TRUE.equals(index.getIndexOptions().get("unique"))) {
+                                                throw new IllegalStateException("Could not create unique index " + index.getIndexKeys()
+                                                                + " on " + type.getSimpleName(), e);
+                                        }
+                                        log.error("Could not create index {} on {}", index.getIndexKeys(), type.getSimpleName(), e);
+                                }
+                        });
+                }
+        }
+}
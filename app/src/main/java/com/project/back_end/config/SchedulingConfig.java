@@ -0,0 +1,10 @@
+package com.project.back_end.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs run on Spring Boot's task scheduler, so they follow spring.threads.virtual.enabled as well
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
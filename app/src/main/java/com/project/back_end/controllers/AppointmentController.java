@@ -15,6 +15,7 @@ package com.project.back_end.controllers;
 
   4. bookAppointment (POST /{token}):
      - Validate patient token; validate requested slot; save appointment; return appropriate status/message.
+     - A slot lost to a concurrent booking is reported as 409, same as a slot that was already taken.
 
   5. updateAppointment (PUT /{token}):
      - Validate patient token; delegate update logic to AppointmentService; return appropriately mapped status.
@@ -37,6 +38,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.List;
@@ -74,9 +76,9 @@ public class AppointmentController {
             res.put("appointments", List.of());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
-        String email = tokenService.extractEmail(token);
-        var doctor = doctorRepository.findByEmail(email);
-        var list = appointmentService.getAppointments(doctor.getId(), LocalDate.parse(date), patientName);
+        Long doctorId = tokenService.extractPrincipalId(token);
+        if (doctorId == null) doctorId = doctorRepository.findByEmail(tokenService.extractEmail(token)).getId();
+        var list = appointmentService.getAppointments(doctorId, LocalDate.parse(date), patientName);
         res.put("appointments", list);
         return ResponseEntity.ok(res);
     }
@@ -89,8 +91,20 @@ public class AppointmentController {
             res.put("message", "Invalid token");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
+        if (appointment.getDoctor() == null || appointment.getPatient() == null || appointment.getAppointmentTime() == null) {
+            res.put("message", "Doctor, patient and appointment time are required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        if (!appointment.getAppointmentTime().isAfter(LocalDateTime.now())) {
+            res.put("message", "Appointment time must be in the future");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        // The token's principal books for itself; older tokens keep using the id from the body
+        Long patientId = tokenService.extractPrincipalId(token);
+        if (patientId != null) appointment.getPatient().setId(patientId);
         LocalDate date = appointment.getAppointmentTime().toLocalDate();
         LocalTime time = appointment.getAppointmentTime().toLocalTime();
+        // Served from the in-memory availability index; the INSERT below is the authoritative check
         int ok = sharedService.validateAppointment(appointment.getDoctor().getId(), date, time);
         if (ok == -1) {
             res.put("message", "Invalid doctor ID");
@@ -104,6 +118,12 @@ public class AppointmentController {
         if (result == 1) {
             res.put("message", "Appointment booked successfully");
             return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        } else if (result == -1) {
+            res.put("message", "Selected slot is not available");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
+        } else if (result == -2) {
+            res.put("message", "Appointment time must be in the future");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
         } else {
             res.put("message", "Failed to book appointment");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
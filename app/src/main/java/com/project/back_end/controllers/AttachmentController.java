@@ -0,0 +1,173 @@
+package com.project.back_end.controllers;
+
+/*
+  Attachments (lab reports, scans). {user} is the token's role.
+
+  1. upload (POST /{user}/{token}?fileName=report.pdf):
+     - Doctors and patients; the raw request body is the file and Content-Type its media type.
+     - The body is streamed to disk, never buffered in memory; responds 201 with the stored metadata.
+
+  2. download (GET /{id}/{user}/{token}):
+     - Doctors and admins read any attachment, patients their own.
+     - Honours a single byte Range (206) and If-Range/If-None-Match against the content-hash ETag.
+     - On Tomcat the body is handed to the connector's sendfile (zero-copy); elsewhere it is copied with
+       FileChannel.transferTo, so heap use stays flat for large files and many concurrent downloads.
+*/
+
+import com.project.back_end.models.FileAttachment;
+import com.project.back_end.services.AttachmentService;
+import com.project.back_end.services.AttachmentStore;
+import com.project.back_end.services.Service;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}attachments")
+public class AttachmentController {
+
+    // Request attributes Tomcat reads to serve a file region with sendfile after the servlet returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentService attachmentService;
+    private final Service sharedService;
+
+    public AttachmentController(AttachmentService attachmentService, Service sharedService) {
+        this.attachmentService = attachmentService;
+        this.sharedService = sharedService;
+    }
+
+    @PostMapping("/{user}/{token}")
+    public ResponseEntity<Map<String, Object>> upload(@PathVariable String user,
+                                                      @PathVariable String token,
+                                                      @RequestParam String fileName,
+                                                      HttpServletRequest request) {
+        Map<String, Object> res = new HashMap<>();
+        if ((!"doctor".equals(user) && !"patient".equals(user)) || !sharedService.validateToken(token, user)) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        Long ownerId = attachmentService.principalId(user, token);
+        if (ownerId == null) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        if (request.getContentLengthLong() > attachmentService.getMaxSize()) {
+            res.put("message", "Attachment exceeds " + attachmentService.getMaxSize() + " bytes");
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(res);
+        }
+        try {
+            FileAttachment saved = attachmentService.upload(user, ownerId, fileName, request.getContentType(),
+                    request.getInputStream());
+            res.put("message", "Attachment uploaded successfully");
+            res.put("attachment", saved);
+            return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        } catch (AttachmentStore.TooLargeException e) {
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(res);
+        } catch (Exception e) {
+            res.put("message", "Failed to store attachment");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
+        }
+    }
+
+    @GetMapping("/{id}/{user}/{token}")
+    public void download(@PathVariable String id,
+                         @PathVariable String user,
+                         @PathVariable String token,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (!sharedService.validateToken(token, user)) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+        FileAttachment a = attachmentService.find(id, user, attachmentService.principalId(user, token));
+        Path blob = a == null ? null : attachmentService.blob(a);
+        if (blob == null || !Files.isRegularFile(blob)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long length = Files.size(blob);
+        String etag = "\"" + a.getSha256() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A stale If-Range, a malformed header or several ranges gets the whole file (RFC 9110 lets servers
+        // ignore Range); only a well-formed single range that misses the file is 416
+        List<HttpRange> ranges = range != null && (ifRange == null || ifRange.equals(etag)) ? parseRanges(range) : List.of();
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentType(a.getContentType());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(a.getFileName() == null ? a.getSha256() : a.getFileName(), StandardCharsets.UTF_8)
+                .build().toString());
+        response.setContentLengthLong(count);
+        if (count == 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, blob.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(blob, StandardOpenOption.READ);
+             WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+            long position = start;
+            while (position <= end) {
+                long sent = in.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) break;
+                position += sent;
+            }
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
@@ -15,12 +15,22 @@ package com.project.back_end.controllers;
      - GET: /availability/{user}/{doctorId}/{date}/{token}
      - Validate token for the provided user role. On success, return available time slots for the date.
 
+  3a. getDoctorAvailabilityRange:
+     - GET: /availability/range/{user}/{from}/{to}/{token}?doctorIds=1,2,3 or ?speciality=...
+     - Returns every requested doctor's availability for every day in the range, encoded as per-day bitmasks.
+     - At most MAX_RANGE_DAYS days and MAX_RANGE_DOCTORS doctors, whether listed by id or matched by speciality;
+       malformed dates are a 400.
+
   4. getDoctor:
-     - GET: returns list of all doctors.
+     - GET: returns the doctor catalogue as DoctorSummary rows; ?page=&size= returns one page with paging metadata.
 
   5. saveDoctor:
      - POST with admin token: validates token; handle conflicts and errors; return appropriate status.
 
+  5a. importDoctors:
+     - POST /import/{token} with admin token; body is CSV (text/csv) or JSON Lines (application/x-ndjson, or ?format=jsonl).
+     - Streams the body through DoctorImportService and returns created/failed counts with a per-row error report.
+
   6. doctorLogin:
      - POST login with Login DTO; validate credentials; return token and message.
 
@@ -34,31 +44,49 @@ package com.project.back_end.controllers;
      - GET filter by name/time/speciality via shared service.
 */
 
+import com.project.back_end.DTO.DoctorImportReport;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.services.DoctorImportService;
 import com.project.back_end.services.DoctorService;
 import com.project.back_end.services.Service;
 import com.project.back_end.services.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("${api.path}doctor")
 public class DoctorController {
 
+        private static final int MAX_RANGE_DAYS = 31;
+        private static final int MAX_RANGE_DOCTORS = 100;
+        private static final int DEFAULT_PAGE_SIZE = 50;
+        private static final int MAX_PAGE_SIZE = 200;
+
         private final DoctorService doctorService;
         private final Service sharedService;
         private final TokenService tokenService;
+        private final DoctorImportService doctorImportService;
 
-        public DoctorController(DoctorService doctorService, Service sharedService, TokenService tokenService) {
+        public DoctorController(DoctorService doctorService, Service sharedService, TokenService tokenService,
+                                DoctorImportService doctorImportService) {
                 this.doctorService = doctorService;
                 this.sharedService = sharedService;
                 this.tokenService = tokenService;
+                this.doctorImportService = doctorImportService;
         }
 
         @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
@@ -77,10 +105,65 @@ public class DoctorController {
         }
 
 
+        @GetMapping("/availability/range/{user}/{from}/{to}/{token}")
+        public ResponseEntity<Map<String, Object>> getDoctorAvailabilityRange(@PathVariable String user,
+                                                                              @PathVariable String from,
+                                                                              @PathVariable String to,
+                                                                              @PathVariable String token,
+                                                                              @RequestParam(required = false) List<Long> doctorIds,
+                                                                              @RequestParam(required = false) String speciality) {
+                Map<String, Object> res = new HashMap<>();
+                if (!sharedService.validateToken(token, user)) {
+                        res.put("message", "Invalid token");
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+                }
+                if ((doctorIds == null || doctorIds.isEmpty()) && (speciality == null || speciality.isBlank())) {
+                        res.put("message", "doctorIds or speciality is required");
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+                }
+                if (doctorIds != null && doctorIds.size() > MAX_RANGE_DOCTORS) {
+                        res.put("message", "At most " + MAX_RANGE_DOCTORS + " doctorIds per request");
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+                }
+                if ((doctorIds == null || doctorIds.isEmpty()) && doctorService.countBySpeciality(speciality) > MAX_RANGE_DOCTORS) {
+                        res.put("message", "More than " + MAX_RANGE_DOCTORS + " doctors match this speciality; pass doctorIds instead");
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+                }
+                LocalDate start;
+                LocalDate end;
+                try {
+                        start = LocalDate.parse(from);
+                        end = LocalDate.parse(to);
+                } catch (DateTimeParseException e) {
+                        res.put("message", "Dates must be in yyyy-MM-dd format");
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+                }
+                if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+                        res.put("message", "Date range must cover 1 to " + MAX_RANGE_DAYS + " days");
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+                }
+                res.put("from", start.toString());
+                res.put("to", end.toString());
+                res.put("availability", doctorService.getAvailabilityRange(doctorIds, speciality, start, end));
+                return ResponseEntity.ok(res);
+        }
+
         @GetMapping
-        public ResponseEntity<Map<String, Object>> getDoctor() {
+        public ResponseEntity<Map<String, Object>> getDoctor(@RequestParam(required = false) Integer page,
+                                                             @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
                 Map<String, Object> res = new HashMap<>();
-                res.put("doctors", doctorService.getDoctors());
+                if (page == null) {
+                        // Unpaged: the whole catalogue, still as summaries with batch-fetched schedules
+                        res.put("doctors", doctorService.getDoctors(Pageable.unpaged(Sort.by("id"))).getContent());
+                        return ResponseEntity.ok(res);
+                }
+                int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+                var result = doctorService.getDoctors(PageRequest.of(Math.max(page, 0), pageSize, Sort.by("id")));
+                res.put("doctors", result.getContent());
+                res.put("page", result.getNumber());
+                res.put("size", result.getSize());
+                res.put("totalElements", result.getTotalElements());
+                res.put("totalPages", result.getTotalPages());
                 return ResponseEntity.ok(res);
         }
 
@@ -103,6 +186,38 @@ public class DoctorController {
                 return ResponseEntity.status(HttpStatus.CREATED).body(res);
         }
 
+        // The body is read as a stream, never bound whole, so large files don't sit in memory
+        @PostMapping("/import/{token}")
+        public ResponseEntity<Map<String, Object>> importDoctors(@PathVariable String token,
+                                                                 @RequestParam(required = false) String format,
+                                                                 HttpServletRequest request) {
+                Map<String, Object> res = new HashMap<>();
+                if (!sharedService.validateToken(token, "admin")) {
+                        res.put("message", "Unauthorized");
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+                }
+                String contentType = request.getContentType() == null ? "" : request.getContentType().toLowerCase();
+                if (format == null) {
+                        format = contentType.contains("ndjson") || contentType.contains("jsonl")
+                                ? DoctorImportService.JSONL : DoctorImportService.CSV;
+                }
+                if (!DoctorImportService.CSV.equalsIgnoreCase(format) && !DoctorImportService.JSONL.equalsIgnoreCase(format)) {
+                        res.put("message", "Unsupported format, use csv or jsonl");
+                        return ResponseEntity.badRequest().body(res);
+                }
+                try {
+                        DoctorImportReport report = doctorImportService.importDoctors(request.getInputStream(), format);
+                        res.put("message", "Imported " + report.getCreated() + " doctors, " + report.getFailed() + " rows rejected");
+                        res.put("created", report.getCreated());
+                        res.put("failed", report.getFailed());
+                        res.put("errors", report.getErrors());
+                        return ResponseEntity.ok(res);
+                } catch (IOException e) {
+                        res.put("message", "Could not read import: " + e.getMessage());
+                        return ResponseEntity.badRequest().body(res);
+                }
+        }
+
         @PostMapping("/login")
         public ResponseEntity<Map<String, Object>> doctorLogin(@RequestBody Login login) {
                 Map<String, Object> res = new HashMap<>();
@@ -111,7 +226,7 @@ public class DoctorController {
                         res.put("message", "Invalid credentials");
                         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
                 }
-                res.put("token", tokenService.generateToken(doc.getEmail()));
+                res.put("token", tokenService.generateToken(doc.getEmail(), "doctor", doc.getId()));
                 res.put("message", "Login successful");
                 return ResponseEntity.ok(res);
         }
@@ -0,0 +1,86 @@
+package com.project.back_end.controllers;
+
+/*
+  Patient feedback on appointments.
+
+  1. submitFeedback (POST /{token}):
+     - Validate patient token; body {"appointmentId": 1, "rating": 1-5, "comment": "..."}.
+     - One feedback per completed (or past) appointment of the caller; the doctor's rating totals
+       are updated in the same request and show up in the doctor listing and filter.
+*/
+
+import com.project.back_end.models.PatientFeedBack;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.DoctorRatingService;
+import com.project.back_end.services.Service;
+import com.project.back_end.services.TokenService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}feedback")
+public class FeedbackController {
+
+    private static final int MAX_COMMENT_LENGTH = 2000;
+
+    private final DoctorRatingService doctorRatingService;
+    private final Service sharedService;
+    private final TokenService tokenService;
+    private final PatientRepository patientRepository;
+
+    public FeedbackController(DoctorRatingService doctorRatingService,
+                              Service sharedService,
+                              TokenService tokenService,
+                              PatientRepository patientRepository) {
+        this.doctorRatingService = doctorRatingService;
+        this.sharedService = sharedService;
+        this.tokenService = tokenService;
+        this.patientRepository = patientRepository;
+    }
+
+    @PostMapping("/{token}")
+    public ResponseEntity<Map<String, Object>> submitFeedback(@RequestBody PatientFeedBack feedback,
+                                                              @PathVariable String token) {
+        Map<String, Object> res = new HashMap<>();
+        if (!sharedService.validateToken(token, "patient")) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        Integer rating = feedback.getRating();
+        if (feedback.getAppointmentId() == null || rating == null
+                || rating < PatientFeedBack.ONE_STAR || rating > PatientFeedBack.FIVE_STAR) {
+            res.put("message", "Appointment and a rating from 1 to 5 are required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        if (feedback.getComment() != null && feedback.getComment().length() > MAX_COMMENT_LENGTH) {
+            res.put("message", "Comment must be at most " + MAX_COMMENT_LENGTH + " characters");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        // Older tokens carry only the email
+        Long patientId = tokenService.extractPrincipalId(token);
+        if (patientId == null) {
+            var patient = patientRepository.findByEmail(tokenService.extractEmail(token));
+            patientId = patient == null ? null : patient.getId();
+        }
+        int result = doctorRatingService.submitFeedback(patientId, feedback);
+        HttpStatus status = switch (result) {
+            case 1 -> HttpStatus.CREATED;
+            case -1 -> HttpStatus.NOT_FOUND;
+            case -2 -> HttpStatus.BAD_REQUEST;
+            case -3 -> HttpStatus.CONFLICT;
+            default -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+        res.put("message", switch (result) {
+            case 1 -> "Feedback saved";
+            case -1 -> "Appointment not found";
+            case -2 -> "Appointment has not taken place yet";
+            case -3 -> "Appointment already rated";
+            default -> "Failed to save feedback";
+        });
+        return ResponseEntity.status(status).body(res);
+    }
+}
@@ -0,0 +1,131 @@
+package com.project.back_end.controllers;
+
+/*
+  Doctor-patient messaging. {user} is "doctor" or "patient" and must match the token's role;
+  {counterpartId} is the other participant (a patient id for doctors, a doctor id for patients).
+
+  1. sendMessage (POST /{user}/{counterpartId}/{token}): body {"message": "..."}; stores the message and
+     pushes it to both participants' open streams. 403 unless the two share an appointment.
+  2. getConversation (GET /{user}/{counterpartId}/{token}): newest first; pass the returned nextCursor as
+     ?cursor= for older messages (?size= up to MAX_PAGE_SIZE). 403 unless the two share an appointment.
+  3. stream (GET /{user}/stream/{token}): text/event-stream carrying a "message" event for every new message
+     in any of the caller's conversations. Clients keep this one connection open instead of polling.
+*/
+
+import com.project.back_end.DTO.InvalidCursorException;
+import com.project.back_end.models.Message;
+import com.project.back_end.services.MessageService;
+import com.project.back_end.services.MessageStreams;
+import com.project.back_end.services.Service;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}messages")
+public class MessageController {
+
+    private static final int DEFAULT_PAGE_SIZE = 30;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final String NO_APPOINTMENT = "Messaging is only available between a doctor and their patients";
+
+    private final MessageService messageService;
+    private final MessageStreams messageStreams;
+    private final Service sharedService;
+
+    public MessageController(MessageService messageService, MessageStreams messageStreams, Service sharedService) {
+        this.messageService = messageService;
+        this.messageStreams = messageStreams;
+        this.sharedService = sharedService;
+    }
+
+    @PostMapping("/{user}/{counterpartId}/{token}")
+    public ResponseEntity<Map<String, Object>> sendMessage(@PathVariable String user,
+                                                           @PathVariable Long counterpartId,
+                                                           @PathVariable String token,
+                                                           @RequestBody Message body) {
+        Map<String, Object> res = new HashMap<>();
+        Long principalId = principal(user, token);
+        if (principalId == null) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        String text = body.getMessage();
+        if (text == null || text.isBlank() || text.length() > MAX_MESSAGE_LENGTH) {
+            res.put("message", "Message must be between 1 and " + MAX_MESSAGE_LENGTH + " characters");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        int result = messageService.sendMessage(user, principalId, counterpartId, text);
+        if (result == 1) {
+            res.put("message", "Message sent");
+            return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        } else if (result == -1) {
+            res.put("message", "doctor".equals(user) ? "Patient not found" : "Doctor not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        } else if (result == -2) {
+            res.put("message", NO_APPOINTMENT);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(res);
+        } else {
+            res.put("message", "Failed to send message");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
+        }
+    }
+
+    @GetMapping("/{user}/{counterpartId}/{token}")
+    public ResponseEntity<Map<String, Object>> getConversation(@PathVariable String user,
+                                                               @PathVariable Long counterpartId,
+                                                               @PathVariable String token,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        Map<String, Object> res = new HashMap<>();
+        Long principalId = principal(user, token);
+        if (principalId == null) {
+            res.put("message", "Invalid token");
+            res.put("messages", java.util.List.of());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        if (!messageService.sharesAppointment(user, principalId, counterpartId)) {
+            res.put("message", NO_APPOINTMENT);
+            res.put("messages", java.util.List.of());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(res);
+        }
+        var page = messageService.getConversation(user, principalId, counterpartId, cursor,
+                Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        res.put("messages", page.getMessages());
+        res.put("nextCursor", page.getNextCursor());
+        return ResponseEntity.ok(res);
+    }
+
+    @GetMapping(value = "/{user}/stream/{token}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable String user, @PathVariable String token) {
+        Long principalId = principal(user, token);
+        if (principalId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        SseEmitter emitter = messageStreams.subscribe(user, principalId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> invalidCursor(InvalidCursorException e) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+    }
+
+    // Only doctors and patients take part in conversations
+    private Long principal(String user, String token) {
+        if (!"doctor".equals(user) && !"patient".equals(user)) return null;
+        if (!sharedService.validateToken(token, user)) return null;
+        return messageService.principalId(user, token);
+    }
+}
@@ -27,11 +27,15 @@ package com.project.back_end.controllers;
   6. Define the getPatientAppointment Method:
      - Handles HTTP GET requests to fetch appointment details for a specific patient.
      - Requires the patient ID, token, and user role as path variables.
+     - Returns one page ordered by appointment time (?size=, 50 by default, at most 200); pass the returned
+       nextCursor as ?cursor= for the next one. nextCursor is null on the last page.
 
   7. Define the filterPatientAppointment Method:
      - Handles HTTP GET requests to filter a patient's appointments based on condition and doctor name.
+     - Paginated the same way as getPatientAppointment (?cursor=&size=).
 */
 
+import com.project.back_end.DTO.InvalidCursorException;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Patient;
 import com.project.back_end.services.PatientService;
@@ -47,6 +51,9 @@ import java.util.Map;
 @RequestMapping("/patient")
 public class PatientController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final PatientService patientService;
     private final Service sharedService;
 
@@ -92,26 +99,43 @@ public class PatientController {
     @GetMapping("/{id}/{user}/{token}")
     public ResponseEntity<Map<String, Object>> getPatientAppointment(@PathVariable Long id,
                                                                      @PathVariable String user,
-                                                                     @PathVariable String token) {
+                                                                     @PathVariable String token,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
         Map<String, Object> res = new HashMap<>();
         if (!sharedService.validateToken(token, user)) {
             res.put("message", "Invalid token");
             res.put("appointments", java.util.List.of());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
         }
-        res.put("appointments", patientService.getPatientAppointment(id));
+        var page = patientService.getPatientAppointment(id, cursor, pageSize(size));
+        res.put("appointments", page.getAppointments());
+        res.put("nextCursor", page.getNextCursor());
         return ResponseEntity.ok(res);
     }
 
     @GetMapping("/filter/{condition}/{name}/{token}")
     public ResponseEntity<Map<String, Object>> filterPatientAppointment(@PathVariable String condition,
                                                                         @PathVariable String name,
-                                                                        @PathVariable String token) {
-        Map<String, Object> resp = new HashMap<>(sharedService.filterPatient(condition, name, token));
+                                                                        @PathVariable String token,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
+        Map<String, Object> resp = new HashMap<>(sharedService.filterPatient(condition, name, token, cursor, pageSize(size)));
         HttpStatus status = resp.containsKey("message") && "Invalid token".equals(resp.get("message"))
                 ? HttpStatus.UNAUTHORIZED : HttpStatus.OK;
         return ResponseEntity.status(status).body(resp);
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> invalidCursor(InvalidCursorException e) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+    }
+
+    private static int pageSize(Integer size) {
+        return Math.max(1, Math.min(size == null ? DEFAULT_PAGE_SIZE : size, MAX_PAGE_SIZE));
+    }
 }
 
 
@@ -0,0 +1,108 @@
+package com.project.back_end.controllers;
+
+/*
+  Payments.
+
+  1. createPayment (POST /{token}):
+     - Validate patient token; body {"appointmentId": 1, "amount": 100}; opens a WAIT payment.
+
+  2. startReconciliation (POST /reconcile/{token}):
+     - Validate admin token; starts (or resumes) settlement of WAIT payments in the background, 202.
+     - 409 when a run is already in progress.
+
+  3. reconciliationStatus (GET /reconcile/{token}):
+     - Validate admin token; returns the latest run and its checkpoint.
+*/
+
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.PaymentService;
+import com.project.back_end.services.Service;
+import com.project.back_end.services.TokenService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}payments")
+public class PaymentController {
+
+    private final PaymentService paymentService;
+    private final Service sharedService;
+    private final TokenService tokenService;
+    private final PatientRepository patientRepository;
+
+    public PaymentController(PaymentService paymentService,
+                             Service sharedService,
+                             TokenService tokenService,
+                             PatientRepository patientRepository) {
+        this.paymentService = paymentService;
+        this.sharedService = sharedService;
+        this.tokenService = tokenService;
+        this.patientRepository = patientRepository;
+    }
+
+    @PostMapping("/{token}")
+    public ResponseEntity<Map<String, Object>> createPayment(@RequestBody Map<String, Long> body,
+                                                             @PathVariable String token) {
+        Map<String, Object> res = new HashMap<>();
+        if (!sharedService.validateToken(token, "patient")) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        Long appointmentId = body.get("appointmentId");
+        Long amount = body.get("amount");
+        if (appointmentId == null || amount == null || amount <= 0 || amount > Integer.MAX_VALUE) {
+            res.put("message", "Appointment and a positive amount are required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
+        }
+        // Older tokens carry only the email
+        Long patientId = tokenService.extractPrincipalId(token);
+        if (patientId == null) {
+            var patient = patientRepository.findByEmail(tokenService.extractEmail(token));
+            patientId = patient == null ? null : patient.getId();
+        }
+        int result = paymentService.createPayment(patientId, appointmentId, amount.intValue());
+        if (result == 1) {
+            res.put("message", "Payment created");
+            return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        } else if (result == -1) {
+            res.put("message", "Appointment not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
+        } else if (result == -3) {
+            res.put("message", "Appointment already has a payment");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
+        } else {
+            res.put("message", "Failed to create payment");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
+        }
+    }
+
+    @PostMapping("/reconcile/{token}")
+    public ResponseEntity<Map<String, Object>> startReconciliation(@PathVariable String token) {
+        Map<String, Object> res = new HashMap<>();
+        if (!sharedService.validateToken(token, "admin")) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        if (!paymentService.startReconciliation()) {
+            res.put("message", "Reconciliation already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(res);
+        }
+        res.put("message", "Reconciliation started");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(res);
+    }
+
+    @GetMapping("/reconcile/{token}")
+    public ResponseEntity<Map<String, Object>> reconciliationStatus(@PathVariable String token) {
+        Map<String, Object> res = new HashMap<>();
+        if (!sharedService.validateToken(token, "admin")) {
+            res.put("message", "Invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
+        }
+        res.put("run", paymentService.latestRun());
+        return ResponseEntity.ok(res);
+    }
+}
@@ -8,19 +8,17 @@ package com.project.back_end.controllers;
   2. Autowire Dependencies:
      - Inject PrescriptionService for saving and fetching prescriptions.
      - Inject shared Service for token validation.
-     - Inject AppointmentService to update appointment status when a prescription is issued.
 
   3. savePrescription (POST /{token}):
      - Validate doctor token.
-     - Delegate save to PrescriptionService.
-     - On success, mark the appointment as completed via AppointmentService.
+     - Delegate save to PrescriptionService; it records the appointment completion in the same insert
+       and AppointmentCompletionOutbox applies the status change asynchronously.
 
   4. getPrescription (GET /{appointmentId}/{token}):
      - Validate doctor token and fetch prescription by appointment ID.
 */
 
 import com.project.back_end.models.Prescription;
-import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.PrescriptionService;
 import com.project.back_end.services.Service;
 import org.springframework.http.HttpStatus;
@@ -35,14 +33,11 @@ public class PrescriptionController {
 
     private final PrescriptionService prescriptionService;
     private final Service sharedService;
-    private final AppointmentService appointmentService;
 
     public PrescriptionController(PrescriptionService prescriptionService,
-                                  Service sharedService,
-                                  AppointmentService appointmentService) {
+                                  Service sharedService) {
         this.prescriptionService = prescriptionService;
         this.sharedService = sharedService;
-        this.appointmentService = appointmentService;
     }
 
     @PostMapping("/{token}")
@@ -52,12 +47,7 @@ public class PrescriptionController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(java.util.Map.of("message", "Invalid token"));
         }
-        var resp = prescriptionService.savePrescription(prescription);
-        if (resp.getStatusCode().is2xxSuccessful()) {
-            // mark appointment completed
-            appointmentService.changeStatus(prescription.getAppointmentId(), 1);
-        }
-        return resp;
+        return prescriptionService.savePrescription(prescription);
     }
 
     @GetMapping("/{appointmentId}/{token}")
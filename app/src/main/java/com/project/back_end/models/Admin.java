@@ -1,11 +1,14 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 public class Admin {
@@ -21,6 +24,12 @@ public class Admin {
         @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
         private String password;
 
+        // Bumped to revoke every token issued so far; written only through AdminRepository.bumpTokenEpoch
+        @JsonIgnore
+        @ColumnDefault("0")
+        @Column(name = "token_epoch", nullable = false, insertable = false, updatable = false)
+        private int tokenEpoch;
+
         public Admin() {
         }
 
@@ -47,4 +56,8 @@ public class Admin {
         public void setPassword(String password) {
                 this.password = password;
         }
+
+        public int getTokenEpoch() {
+                return tokenEpoch;
+        }
 }
@@ -9,11 +9,19 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(indexes = @Index(name = "appointment_time_index", columnList = "appointment_time, doctor_id", unique = true))
+@Table(indexes = {
+        @Index(name = "appointment_time_index", columnList = "appointment_time, doctor_id", unique = true),
+        // Serves keyset-paginated patient history ordered by (appointment_time, id)
+        @Index(name = "patient_time_index", columnList = "patient_id, appointment_time, id")
+})
 public class Appointment {
 
+        // Ids are handed out in blocks of 50 from the shared id_generator table (pooled hi/lo), unlike IDENTITY
+        // this leaves Hibernate free to batch inserts; IdGeneratorConfig moves the blocks past existing ids
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_id")
+        @TableGenerator(name = "appointment_id", table = "id_generator", pkColumnName = "entity_name",
+                        valueColumnName = "next_val", pkColumnValue = "appointment", allocationSize = 50)
         private Long id;
 
         @ManyToOne
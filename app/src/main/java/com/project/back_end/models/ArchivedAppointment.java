@@ -0,0 +1,66 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// Appointment moved out of the live table when its doctor is deleted; filled by one INSERT ... SELECT,
+// so it keeps the original id and plain foreign key values rather than relations
+@Entity
+@Table(name = "appointment_archive", indexes = {
+        @Index(name = "appointment_archive_doctor_index", columnList = "doctor_id, appointment_time"),
+        // Serves PrescriptionArchiver's scan for appointments whose prescriptions are still live
+        @Index(name = "appointment_archive_pending_index", columnList = "prescriptions_pending, id")
+})
+public class ArchivedAppointment {
+
+        @Id
+        private Long id;
+
+        private Long doctorId;
+        private Long patientId;
+        private LocalDateTime appointmentTime;
+        private int status;
+        // Payment that pointed at the appointment; the payment row itself stays, detached from it
+        private Long paymentId;
+        private LocalDateTime archivedAt;
+        private boolean prescriptionsPending = true;
+
+        public ArchivedAppointment() {
+        }
+
+        public Long getId() {
+                return id;
+        }
+
+        public Long getDoctorId() {
+                return doctorId;
+        }
+
+        public Long getPatientId() {
+                return patientId;
+        }
+
+        public LocalDateTime getAppointmentTime() {
+                return appointmentTime;
+        }
+
+        public int getStatus() {
+                return status;
+        }
+
+        public Long getPaymentId() {
+                return paymentId;
+        }
+
+        public LocalDateTime getArchivedAt() {
+                return archivedAt;
+        }
+
+        public boolean isPrescriptionsPending() {
+                return prescriptionsPending;
+        }
+}
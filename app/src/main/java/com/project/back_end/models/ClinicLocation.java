@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 public class ClinicLocation {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "clinic_location_id")
+        @TableGenerator(name = "clinic_location_id", table = "id_generator", pkColumnName = "entity_name",
+                        valueColumnName = "next_val", pkColumnValue = "clinic_location", allocationSize = 50)
         private Long id;
 
         public Long getId() {
@@ -1,11 +1,16 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.List;
 
@@ -13,7 +18,9 @@ import java.util.List;
 public class Doctor {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "doctor_id")
+        @TableGenerator(name = "doctor_id", table = "id_generator", pkColumnName = "entity_name",
+                        valueColumnName = "next_val", pkColumnValue = "doctor", allocationSize = 50)
         private Long id;
 
 
@@ -46,6 +53,17 @@ public class Doctor {
         @CollectionTable(name = "doctor_available_times", joinColumns = @JoinColumn(name = "doctor_id"))
         private List<Schedule> availableTimes;
 
+        // Slot length, breaks, weekday variations and date exceptions; null keeps hourly slots over availableTimes
+        @Valid
+        @JdbcTypeCode(SqlTypes.JSON)
+        private ScheduleTemplate scheduleTemplate;
+
+        // Bumped to revoke every token issued so far; written only through DoctorRepository.bumpTokenEpoch
+        @JsonIgnore
+        @ColumnDefault("0")
+        @Column(name = "token_epoch", nullable = false, insertable = false, updatable = false)
+        private int tokenEpoch;
+
         public Doctor() {
         }
 
@@ -104,4 +122,16 @@ public class Doctor {
         public void setAvailableTimes(List<Schedule> availableTimes) {
                 this.availableTimes = availableTimes;
         }
+
+        public ScheduleTemplate getScheduleTemplate() {
+                return scheduleTemplate;
+        }
+
+        public void setScheduleTemplate(ScheduleTemplate scheduleTemplate) {
+                this.scheduleTemplate = scheduleTemplate;
+        }
+
+        public int getTokenEpoch() {
+                return tokenEpoch;
+        }
 }
@@ -0,0 +1,55 @@
+package com.project.back_end.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Running rating totals for one doctor, keyed by doctor id; only ever changed with $inc
+@Document(collection = "doctor_ratings")
+public class DoctorRating {
+
+        @Id
+        private Long id;
+
+        private long count;
+        private long sum;
+        // Feedback count per star, keyed "1".."5"
+        private Map<String, Long> stars = new HashMap<>();
+
+        public DoctorRating() {
+        }
+
+        public Long getId() {
+                return id;
+        }
+
+        public void setId(Long id) {
+                this.id = id;
+        }
+
+        public long getCount() {
+                return count;
+        }
+
+        public void setCount(long count) {
+                this.count = count;
+        }
+
+        public long getSum() {
+                return sum;
+        }
+
+        public void setSum(long sum) {
+                this.sum = sum;
+        }
+
+        public Map<String, Long> getStars() {
+                return stars;
+        }
+
+        public void setStars(Map<String, Long> stars) {
+                this.stars = stars;
+        }
+}
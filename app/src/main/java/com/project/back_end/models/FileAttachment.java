@@ -1,8 +1,12 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
+
 @Document(collection = "file_attachments")
 public class FileAttachment {
 
@@ -15,6 +19,15 @@ public class FileAttachment {
         private long size;
         private String url;
 
+        // SHA-256 of the content, hex; names the stored blob, so identical uploads share one file on disk
+        @Indexed
+        private String sha256;
+        @JsonIgnore
+        private String ownerRole;
+        @JsonIgnore
+        private Long ownerId;
+        private LocalDateTime uploadedAt;
+
         public FileAttachment() {
         }
 
@@ -65,4 +78,36 @@ public class FileAttachment {
         public void setUrl(String url) {
                 this.url = url;
         }
+
+        public String getSha256() {
+                return sha256;
+        }
+
+        public void setSha256(String sha256) {
+                this.sha256 = sha256;
+        }
+
+        public String getOwnerRole() {
+                return ownerRole;
+        }
+
+        public void setOwnerRole(String ownerRole) {
+                this.ownerRole = ownerRole;
+        }
+
+        public Long getOwnerId() {
+                return ownerId;
+        }
+
+        public void setOwnerId(Long ownerId) {
+                this.ownerId = ownerId;
+        }
+
+        public LocalDateTime getUploadedAt() {
+                return uploadedAt;
+        }
+
+        public void setUploadedAt(LocalDateTime uploadedAt) {
+                this.uploadedAt = uploadedAt;
+        }
 }
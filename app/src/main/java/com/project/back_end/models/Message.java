@@ -1,10 +1,13 @@
 package com.project.back_end.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+// Conversation history is read newest first by (timestamp, _id); _id breaks ties between equal timestamps
+@CompoundIndex(name = "conversation_timestamp", def = "{'doctorId': 1, 'patientId': 1, 'timestamp': -1, '_id': -1}")
 @Document(collection = "messages")
 public class Message {
         @Id
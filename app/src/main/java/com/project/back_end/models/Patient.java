@@ -1,11 +1,13 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,7 +16,9 @@ import java.util.List;
 public class Patient {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "patient_id")
+        @TableGenerator(name = "patient_id", table = "id_generator", pkColumnName = "entity_name",
+                        valueColumnName = "next_val", pkColumnValue = "patient", allocationSize = 50)
         private Long id;
 
         @NotNull
@@ -41,6 +45,12 @@ public class Patient {
         @OneToMany(mappedBy = "patient")
         private List<MedicalRecord> medicalRecords = new ArrayList<>();
 
+        // Bumped to revoke every token issued so far; written only through PatientRepository.bumpTokenEpoch
+        @JsonIgnore
+        @ColumnDefault("0")
+        @Column(name = "token_epoch", nullable = false, insertable = false, updatable = false)
+        private int tokenEpoch;
+
         public Patient() {
         }
 
@@ -91,4 +101,8 @@ public class Patient {
         public void setAddress(String address) {
                 this.address = address;
         }
+
+        public int getTokenEpoch() {
+                return tokenEpoch;
+        }
 }
@@ -1,6 +1,8 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -16,11 +18,21 @@ public class PatientFeedBack {
         @Id
         private String id;
 
+        // One feedback per appointment; the unique index is what keeps rating totals from double counting
+        @Indexed(unique = true)
         private Long appointmentId;
+        private Long doctorId;
+        private Long patientId;
         private Integer rating;
         private String comment;
         private LocalDateTime createdAt;
 
+        // Written with the feedback: true until its $inc has reached doctor_ratings, then removed.
+        // Never read from or written to clients.
+        @JsonIgnore
+        @Indexed(sparse = true)
+        private Boolean totalsPending;
+
         public PatientFeedBack() {
         }
 
@@ -40,6 +52,22 @@ public class PatientFeedBack {
                 this.appointmentId = appointmentId;
         }
 
+        public Long getDoctorId() {
+                return doctorId;
+        }
+
+        public void setDoctorId(Long doctorId) {
+                this.doctorId = doctorId;
+        }
+
+        public Long getPatientId() {
+                return patientId;
+        }
+
+        public void setPatientId(Long patientId) {
+                this.patientId = patientId;
+        }
+
         public Integer getRating() {
                 return rating;
         }
@@ -63,4 +91,12 @@ public class PatientFeedBack {
         public void setCreatedAt(LocalDateTime createdAt) {
                 this.createdAt = createdAt;
         }
+
+        public Boolean getTotalsPending() {
+                return totalsPending;
+        }
+
+        public void setTotalsPending(Boolean totalsPending) {
+                this.totalsPending = totalsPending;
+        }
 }
@@ -1,6 +1,6 @@
 package com.project.back_end.models;
 
-import jakarta.persistence.Id;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -20,4 +20,39 @@ public class PatientLog {
         private Long doctorId;
         private Long appointmentId;
         private LocalDateTime timestamp;
+
+        public PatientLog() {
+        }
+
+        public PatientLog(String action, Long patientId, Long doctorId, Long appointmentId, LocalDateTime timestamp) {
+                this.action = action;
+                this.patientId = patientId;
+                this.doctorId = doctorId;
+                this.appointmentId = appointmentId;
+                this.timestamp = timestamp;
+        }
+
+        public String getId() {
+                return id;
+        }
+
+        public String getAction() {
+                return action;
+        }
+
+        public Long getPatientId() {
+                return patientId;
+        }
+
+        public Long getDoctorId() {
+                return doctorId;
+        }
+
+        public Long getAppointmentId() {
+                return appointmentId;
+        }
+
+        public LocalDateTime getTimestamp() {
+                return timestamp;
+        }
 }
@@ -1,11 +1,16 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
 
 @Entity
+// Serves the reconciliation job's keyset scan: where status = WAIT and id > ? order by id
+@Table(indexes = @Index(name = "payment_status_index", columnList = "status, id"))
 public class Payment {
 
         public static final int PAID = 1;
@@ -27,6 +32,30 @@ public class Payment {
         private Integer status = WAIT;
 
         @OneToOne
+        @JsonIgnore
         private Appointment appointment;
 
+        public Integer getAmount() {
+                return amount;
+        }
+
+        public void setAmount(Integer amount) {
+                this.amount = amount;
+        }
+
+        public Integer getStatus() {
+                return status;
+        }
+
+        public void setStatus(Integer status) {
+                this.status = status;
+        }
+
+        public Appointment getAppointment() {
+                return appointment;
+        }
+
+        public void setAppointment(Appointment appointment) {
+                this.appointment = appointment;
+        }
 }
@@ -1,8 +1,10 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -18,6 +20,7 @@ public class Prescription {
         private String patientName;
 
         @NotNull
+        @Indexed(unique = true)
         private Long appointmentId;
 
 
@@ -33,6 +36,12 @@ public class Prescription {
         @Size(max = 200)
         private String doctorNotes;
 
+        // Outbox marker written with the prescription: true until the appointment has been marked completed,
+        // then removed. Never read from or written to clients.
+        @JsonIgnore
+        @Indexed(sparse = true)
+        private Boolean statusPending;
+
         public Prescription() {
         }
 
@@ -91,4 +100,12 @@ public class Prescription {
         public void setDoctorNotes(String doctorNotes) {
                 this.doctorNotes = doctorNotes;
         }
+
+        public Boolean getStatusPending() {
+                return statusPending;
+        }
+
+        public void setStatusPending(Boolean statusPending) {
+                this.statusPending = statusPending;
+        }
 }
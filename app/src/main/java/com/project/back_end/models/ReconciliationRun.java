@@ -0,0 +1,85 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+
+import java.time.LocalDateTime;
+
+// Checkpoint of one payment reconciliation run, advanced in the same transaction as each chunk it covers
+@Entity
+public class ReconciliationRun {
+
+        public static final String RUNNING = "RUNNING";
+        public static final String COMPLETED = "COMPLETED";
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String status = RUNNING;
+        // Highest payment id covered by a committed chunk; the run resumes after it
+        private Long lastPaymentId = 0L;
+        private long scanned;
+        private long settled;
+        private int chunks;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+
+        // Two instances advancing the same run conflict here instead of both applying a chunk
+        @Version
+        private long version;
+
+        public ReconciliationRun() {
+        }
+
+        public ReconciliationRun(LocalDateTime startedAt) {
+                this.startedAt = startedAt;
+        }
+
+        public void advance(Long lastPaymentId, int scanned, int settled) {
+                this.lastPaymentId = lastPaymentId;
+                this.scanned += scanned;
+                this.settled += settled;
+                this.chunks++;
+        }
+
+        public void complete(LocalDateTime finishedAt) {
+                this.status = COMPLETED;
+                this.finishedAt = finishedAt;
+        }
+
+        public Long getId() {
+                return id;
+        }
+
+        public String getStatus() {
+                return status;
+        }
+
+        public Long getLastPaymentId() {
+                return lastPaymentId;
+        }
+
+        public long getScanned() {
+                return scanned;
+        }
+
+        public long getSettled() {
+                return settled;
+        }
+
+        public int getChunks() {
+                return chunks;
+        }
+
+        public LocalDateTime getStartedAt() {
+                return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+                return finishedAt;
+        }
+}
@@ -3,6 +3,7 @@ package com.project.back_end.models;
 import jakarta.persistence.Embeddable;
 
 import java.time.LocalTime;
+import java.util.Objects;
 
 @Embeddable
 public class Schedule {
@@ -28,4 +29,17 @@ public class Schedule {
         public void setEndTime(LocalTime endTime) {
                 this.endTime = endTime;
         }
+
+        // Value semantics: schedules are compared inside ScheduleTemplate and as compiled-template cache keys
+        @Override
+        public boolean equals(Object o) {
+                if (this == o) return true;
+                if (!(o instanceof Schedule other)) return false;
+                return Objects.equals(startTime, other.startTime) && Objects.equals(endTime, other.endTime);
+        }
+
+        @Override
+        public int hashCode() {
+                return Objects.hash(startTime, endTime);
+        }
 }
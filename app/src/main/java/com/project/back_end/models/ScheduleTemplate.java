@@ -0,0 +1,22 @@
+package com.project.back_end.models;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Optional slot rules on top of a doctor's availableTimes, stored as one JSON column on doctor.
+// - slotMinutes: slot length (60 when absent); slots start every slotMinutes from the start of each working range
+// - breaks: ranges no slot may overlap, applied on every day
+// - weekdays: working ranges that replace availableTimes on that weekday (an empty list is a day off)
+// - exceptions: working ranges that replace everything else on that date (an empty list closes the day)
+public record ScheduleTemplate(
+        @Min(5) @Max(720) Integer slotMinutes,
+        List<@Valid Schedule> breaks,
+        Map<DayOfWeek, List<@Valid Schedule>> weekdays,
+        Map<LocalDate, List<@Valid Schedule>> exceptions) {
+}
@@ -2,9 +2,22 @@ package com.project.back_end.repo;
 
 import com.project.back_end.models.Admin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface AdminRepository extends JpaRepository<Admin, Long> {
     Admin findByUsername(String username);
+
+    // Token revocation counter (see TokenService); null when the admin does not exist
+    @Query("select a.tokenEpoch from Admin a where a.id = :id")
+    Integer findTokenEpochById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update Admin a set a.tokenEpoch = a.tokenEpoch + 1 where a.id = :id")
+    int bumpTokenEpoch(@Param("id") Long id);
 }
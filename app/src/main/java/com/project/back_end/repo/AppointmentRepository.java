@@ -1,6 +1,8 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,28 +11,104 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-        List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+        // Projects straight into AppointmentDTO with one join, without hydrating Appointment/Doctor/Patient
+        String DTO_SELECT = "select new com.project.back_end.DTO.AppointmentDTO(" +
+                "a.id, d.id, d.name, p.id, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+                "from Appointment a join a.doctor d join a.patient p ";
 
-        List<Appointment> findByDoctorIdAndPatientNameContainingIgnoreCaseAndAppointmentTimeBetween(Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
+        // Doctor and patient may only message each other once they share an appointment
+        boolean existsByDoctorIdAndPatientId(Long doctorId, Long patientId);
 
-        @Transactional
-        void deleteAllByDoctorId(Long doctorId);
+        @Query(DTO_SELECT + "where d.id = :doctorId and a.appointmentTime between :start and :end " +
+                "order by a.appointmentTime")
+        List<AppointmentDTO> findDTOsByDoctorIdAndAppointmentTimeBetween(@Param("doctorId") Long doctorId,
+                                                                         @Param("start") LocalDateTime start,
+                                                                         @Param("end") LocalDateTime end);
+
+        @Query(DTO_SELECT + "where d.id = :doctorId and a.appointmentTime between :start and :end " +
+                "and lower(p.name) like lower(concat('%', :patientName, '%')) order by a.appointmentTime")
+        List<AppointmentDTO> findDTOsByDoctorIdAndPatientNameAndAppointmentTimeBetween(@Param("doctorId") Long doctorId,
+                                                                                      @Param("patientName") String patientName,
+                                                                                      @Param("start") LocalDateTime start,
+                                                                                      @Param("end") LocalDateTime end);
+
+        // Patient history, keyset-paginated on (appointmentTime, id) after the given position
+        String AFTER_CURSOR = "and (a.appointmentTime > :afterTime or (a.appointmentTime = :afterTime and a.id > :afterId)) ";
+        String KEYSET_ORDER = "order by a.appointmentTime asc, a.id asc";
+
+        @Query(DTO_SELECT + "where p.id = :patientId " + AFTER_CURSOR + KEYSET_ORDER)
+        List<AppointmentDTO> findDTOsByPatientId(@Param("patientId") Long patientId,
+                                                 @Param("afterTime") LocalDateTime afterTime,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
+
+        @Query(DTO_SELECT + "where p.id = :patientId and a.status = :status " + AFTER_CURSOR + KEYSET_ORDER)
+        List<AppointmentDTO> findDTOsByPatientIdAndStatus(@Param("patientId") Long patientId,
+                                                          @Param("status") int status,
+                                                          @Param("afterTime") LocalDateTime afterTime,
+                                                          @Param("afterId") Long afterId,
+                                                          Limit limit);
+
+        @Query(DTO_SELECT + "where p.id = :patientId and lower(d.name) like lower(concat('%', :doctorName, '%')) " +
+                AFTER_CURSOR + KEYSET_ORDER)
+        List<AppointmentDTO> findDTOsByPatientIdAndDoctorName(@Param("patientId") Long patientId,
+                                                              @Param("doctorName") String doctorName,
+                                                              @Param("afterTime") LocalDateTime afterTime,
+                                                              @Param("afterId") Long afterId,
+                                                              Limit limit);
+
+        @Query(DTO_SELECT + "where p.id = :patientId and a.status = :status " +
+                "and lower(d.name) like lower(concat('%', :doctorName, '%')) " + AFTER_CURSOR + KEYSET_ORDER)
+        List<AppointmentDTO> findDTOsByPatientIdAndDoctorNameAndStatus(@Param("patientId") Long patientId,
+                                                                       @Param("doctorName") String doctorName,
+                                                                       @Param("status") int status,
+                                                                       @Param("afterTime") LocalDateTime afterTime,
+                                                                       @Param("afterId") Long afterId,
+                                                                       Limit limit);
 
-        List<Appointment> findByPatientId(Long patientId);
+        List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+        // Booked start times for a set of doctors in one round-trip: rows are [doctorId, appointmentTime]
+        @Query("select a.doctor.id, a.appointmentTime from Appointment a " +
+                "where a.doctor.id in :doctorIds and a.appointmentTime between :start and :end")
+        List<Object[]> findBookedTimes(@Param("doctorIds") Collection<Long> doctorIds,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
 
-        List<Appointment> findByPatientIdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
+        // Who an appointment is between, for audit events: rows are [appointmentId, patientId, doctorId]
+        @Query("select a.id, a.patient.id, a.doctor.id from Appointment a where a.id in :ids")
+        List<Object[]> findParticipants(@Param("ids") Collection<Long> ids);
 
-        List<Appointment> findByDoctorNameContainingIgnoreCaseAndPatientId(String doctorName, Long patientId);
+        // Set-based: one DELETE, no entities loaded (run after archiveByDoctorId, in the same transaction)
+        @Modifying
+        @Query("delete from Appointment a where a.doctor.id = :doctorId")
+        int deleteByDoctorId(@Param("doctorId") Long doctorId);
 
-        List<Appointment> findByDoctorNameContainingIgnoreCaseAndPatientIdAndStatus(String doctorName, Long patientId, int status);
+        // Reserves a slot with a single INSERT; a taken slot is rejected by appointment_time_index.
+        // The id is allocated up front (IdAllocator) from the same pooled generator Hibernate uses.
+        @Modifying
+        @Transactional
+        @Query(value = "insert into appointment (id, appointment_time, status, doctor_id, patient_id) " +
+                "values (:id, :appointmentTime, :status, :doctorId, :patientId)", nativeQuery = true)
+        int reserveSlot(@Param("id") Long id,
+                        @Param("doctorId") Long doctorId,
+                        @Param("patientId") Long patientId,
+                        @Param("appointmentTime") LocalDateTime appointmentTime,
+                        @Param("status") int status);
 
         @Modifying
         @Transactional
         @Query("update Appointment a set a.status = :status where a.id = :id")
         void updateStatus(@Param("status") int status, @Param("id") long id);
+
+        @Modifying
+        @Transactional
+        @Query("update Appointment a set a.status = :status where a.id in :ids")
+        int updateStatusByIdIn(@Param("status") int status, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,33 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ArchivedAppointment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+        // Copies all of a doctor's appointments in one statement, with the payment each one had
+        @Modifying
+        @Query("insert into ArchivedAppointment (id, doctorId, patientId, appointmentTime, status, paymentId, archivedAt, " +
+                "prescriptionsPending) select a.id, a.doctor.id, a.patient.id, a.appointmentTime, a.status, p.id, " +
+                ":archivedAt, true from Appointment a left join a.payment p where a.doctor.id = :doctorId")
+        int archiveByDoctorId(@Param("doctorId") Long doctorId, @Param("archivedAt") LocalDateTime archivedAt);
+
+        @Query("select a.id from ArchivedAppointment a where a.prescriptionsPending = true order by a.id")
+        List<Long> findPrescriptionsPending(Limit limit);
+
+        @Modifying
+        @Transactional
+        @Query("update ArchivedAppointment a set a.prescriptionsPending = false where a.id in :ids")
+        int markPrescriptionsArchived(@Param("ids") Collection<Long> ids);
+}
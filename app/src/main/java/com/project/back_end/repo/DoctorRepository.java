@@ -1,21 +1,60 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.DoctorSummary;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ScheduleTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Doctor findByEmail(String email);
 
-    @Query("select d from Doctor d where d.name like %:name%")
-    List<Doctor> findByNameLike(@Param("name") String name);
+    @Query(value = "select new com.project.back_end.DTO.DoctorSummary(d.id, d.name, d.specialty, d.email, d.phone) from Doctor d",
+            countQuery = "select count(d) from Doctor d")
+    Page<DoctorSummary> findSummaries(Pageable pageable);
 
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(String name, String specialty);
+    // Schedules for a page of doctors in one query: rows are [doctorId, startTime, endTime]
+    @Query("select d.id, t.startTime, t.endTime from Doctor d join d.availableTimes t where d.id in :ids")
+    List<Object[]> findSchedulesByDoctorIdIn(@Param("ids") Collection<Long> ids);
 
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
-}
\ No newline at end of file
+    @Query("select distinct d from Doctor d left join fetch d.availableTimes")
+    List<Doctor> findAllWithSchedule();
+
+    @Query("select distinct d from Doctor d left join fetch d.availableTimes where d.id in :ids")
+    List<Doctor> findWithScheduleByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct d from Doctor d left join fetch d.availableTimes where lower(d.specialty) = lower(:specialty)")
+    List<Doctor> findWithScheduleBySpecialty(@Param("specialty") String specialty);
+
+    // Same match as findWithScheduleBySpecialty, for checking the size before loading
+    @Query("select count(d) from Doctor d where lower(d.specialty) = lower(:specialty)")
+    long countBySpecialty(@Param("specialty") String specialty);
+
+    // Duplicate check for a whole import chunk in one query
+    @Query("select d.email from Doctor d where d.email in :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    // Token revocation counter (see TokenService); null when the doctor does not exist
+    @Query("select d.tokenEpoch from Doctor d where d.id = :id")
+    Integer findTokenEpochById(@Param("id") Long id);
+
+    // Used by the bulk import, inside its chunk transaction: one statement per distinct template
+    @Modifying
+    @Query("update Doctor d set d.scheduleTemplate = :template where d.id in :ids")
+    int updateScheduleTemplate(@Param("template") ScheduleTemplate template, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("update Doctor d set d.tokenEpoch = d.tokenEpoch + 1 where d.id = :id")
+    int bumpTokenEpoch(@Param("id") Long id);
+}
@@ -0,0 +1,9 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.FileAttachment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FileAttachmentRepository extends MongoRepository<FileAttachment, String> {
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Message;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MessageRepository extends MongoRepository<Message, String> {
+
+    // Keyset page of one conversation, newest first, strictly before (timestamp, id); served by conversation_timestamp
+    @Query(value = "{ 'doctorId': ?0, 'patientId': ?1, '$or': [ { 'timestamp': { '$lt': ?2 } }, "
+            + "{ 'timestamp': ?2, '_id': { '$lt': ?3 } } ] }",
+            sort = "{ 'timestamp': -1, '_id': -1 }")
+    List<Message> findConversationBefore(Long doctorId, Long patientId, LocalDateTime timestamp, ObjectId id, Limit limit);
+}
@@ -2,11 +2,23 @@ package com.project.back_end.repo;
 
 import com.project.back_end.models.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Patient findByEmail(String email);
     Patient findByEmailOrPhone(String email, String phone);
-}
 
+    // Token revocation counter (see TokenService); null when the patient does not exist
+    @Query("select p.tokenEpoch from Patient p where p.id = :id")
+    Integer findTokenEpochById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update Patient p set p.tokenEpoch = p.tokenEpoch + 1 where p.id = :id")
+    int bumpTokenEpoch(@Param("id") Long id);
+}
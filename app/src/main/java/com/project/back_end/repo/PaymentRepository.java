@@ -0,0 +1,29 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.PaymentRow;
+import com.project.back_end.models.Payment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+        boolean existsByAppointmentId(Long appointmentId);
+
+        // Next keyset chunk of payments in the given status after afterId, as projections (no entities loaded)
+        @Query("select new com.project.back_end.DTO.PaymentRow(p.id, a.id, a.status, a.patient.id, a.doctor.id) " +
+                "from Payment p join p.appointment a where p.status = :status and p.id > :afterId order by p.id")
+        List<PaymentRow> findChunk(@Param("status") Integer status, @Param("afterId") Long afterId, Limit limit);
+
+        // Keeps a deleted doctor's payments, unlinked from the appointments being archived
+        @Modifying
+        @Query("update Payment p set p.appointment = null where p.appointment.id in " +
+                "(select a.id from Appointment a where a.doctor.id = :doctorId)")
+        int detachFromDoctorAppointments(@Param("doctorId") Long doctorId);
+}
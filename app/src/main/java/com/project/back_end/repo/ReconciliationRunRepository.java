@@ -0,0 +1,15 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+        Optional<ReconciliationRun> findFirstByStatusOrderByIdDesc(String status);
+
+        Optional<ReconciliationRun> findFirstByOrderByIdDesc();
+}
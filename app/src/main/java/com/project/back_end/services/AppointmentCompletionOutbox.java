@@ -0,0 +1,114 @@
+package com.project.back_end.services;
+
+/*
+  Outbox relay that marks appointments completed once their prescription is saved.
+  1. PrescriptionService inserts each prescription with statusPending = true, so the prescription and the
+     pending status change are written in one Mongo operation.
+  2. drain() reads pending prescriptions in batches, applies status = 1 to their appointments with one
+     MySQL UPDATE per batch, then removes the marker. Both steps are idempotent; a crash in between
+     simply re-applies the batch. Each completed appointment is logged as a CHECK OUT patient event.
+  3. It runs right after a save (wake) and on a fixed delay, which picks up anything a failed or
+     interrupted run left behind.
+*/
+
+import com.project.back_end.models.PatientLog;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class AppointmentCompletionOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentCompletionOutbox.class);
+
+    static final String PENDING = "statusPending";
+    private static final int BATCH = 200;
+    private static final int COMPLETED = 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRepository appointmentRepository;
+    private final TaskExecutor taskExecutor;
+    private final PatientLogWriter patientLogWriter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    public AppointmentCompletionOutbox(MongoTemplate mongoTemplate,
+                                       AppointmentRepository appointmentRepository,
+                                       @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                       PatientLogWriter patientLogWriter) {
+        this.mongoTemplate = mongoTemplate;
+        this.appointmentRepository = appointmentRepository;
+        this.taskExecutor = taskExecutor;
+        this.patientLogWriter = patientLogWriter;
+    }
+
+    // Schedules a drain off the request thread
+    public void wake() {
+        requested.set(true);
+        try {
+            taskExecutor.execute(this::drain);
+        } catch (Exception e) {
+            // Executor saturated or shutting down; the scheduled run will pick the entry up
+        }
+    }
+
+    // One drainer at a time; a wake() that arrives while draining makes the current drainer loop again
+    @Scheduled(fixedDelayString = "${clinic.outbox.poll-interval-ms:5000}")
+    public void drain() {
+        while (lock.tryLock()) {
+            try {
+                requested.set(false);
+                while (applyBatch() == BATCH) {
+                    // keep going until the backlog is empty
+                }
+            } catch (Exception e) {
+                log.warn("Appointment completion outbox run failed, retrying on next poll", e);
+                return;
+            } finally {
+                lock.unlock();
+            }
+            if (!requested.get()) return;
+        }
+    }
+
+    private int applyBatch() {
+        Query pending = new Query(Criteria.where(PENDING).is(true)).limit(BATCH);
+        pending.fields().include("_id").include("appointmentId");
+        List<Prescription> batch = mongoTemplate.find(pending, Prescription.class);
+        if (batch.isEmpty()) return 0;
+
+        List<Long> appointmentIds = new ArrayList<>(batch.size());
+        List<String> prescriptionIds = new ArrayList<>(batch.size());
+        for (Prescription p : batch) {
+            if (p.getAppointmentId() != null) appointmentIds.add(p.getAppointmentId());
+            prescriptionIds.add(p.getId());
+        }
+        List<Object[]> participants = List.of();
+        if (!appointmentIds.isEmpty()) {
+            appointmentRepository.updateStatusByIdIn(COMPLETED, appointmentIds);
+            participants = appointmentRepository.findParticipants(appointmentIds);
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(prescriptionIds)),
+                new Update().unset(PENDING), Prescription.class);
+        // Same ids as the CHECK IN event; appointments deleted in the meantime have nothing to log
+        for (Object[] p : participants) {
+            patientLogWriter.record(PatientLog.CHECK_OUT, (Long) p[1], (Long) p[2], (Long) p[0]);
+        }
+        return batch.size();
+    }
+}
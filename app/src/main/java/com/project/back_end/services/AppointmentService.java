@@ -4,18 +4,27 @@ package com.project.back_end.services;
   INSTRUCTIONS (kept as requested):
   1. Mark as @Service; inject AppointmentRepository, Service (shared), TokenService, PatientRepository, DoctorRepository.
   2. Annotate DB-modifying methods with @Transactional.
-  3. bookAppointment: persist and return 1 on success, 0 on failure.
+  3. bookAppointment: reserve the slot with one INSERT and return 1 on success, -1 when the slot was taken,
+     -2 when the time is not in the future (the native INSERT skips @Future), 0 on failure.
   4. updateAppointment: validate ownership, slot availability (via shared service), then update; return message map.
   5. cancelAppointment: ensure patient owns appointment and delete.
   6. getAppointments: read-only query for a doctor's daily appointments, optional patient-name filter, map to DTOs.
   7. changeStatus: update appointment status in a transaction.
+  8. Bookings and cancellations are recorded in patient_logs through PatientLogWriter, off the request path.
 */
 
 import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
+import com.project.back_end.models.PatientLog;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -25,8 +34,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+@Timed("clinic.service")
 @org.springframework.stereotype.Service
 public class AppointmentService {
 
@@ -35,29 +44,67 @@ public class AppointmentService {
     private final TokenService tokenService;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final PatientLogWriter patientLogWriter;
+    private final IdAllocator idAllocator;
+    private final Counter slotConflicts;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
                               Service sharedService,
                               TokenService tokenService,
                               PatientRepository patientRepository,
-                              DoctorRepository doctorRepository) {
+                              DoctorRepository doctorRepository,
+                              AvailabilityIndex availabilityIndex,
+                              PatientLogWriter patientLogWriter,
+                              IdAllocator idAllocator,
+                              MeterRegistry meterRegistry) {
         this.appointmentRepository = appointmentRepository;
         this.sharedService = sharedService;
         this.tokenService = tokenService;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.patientLogWriter = patientLogWriter;
+        this.idAllocator = idAllocator;
+        this.slotConflicts = Counter.builder("clinic.appointments.slot.conflicts")
+                .tag("stage", "insert").register(meterRegistry);
     }
 
-    @Transactional
+    // Not @Transactional on purpose: the INSERT commits on its own, so a unique-index violation
+    // surfaces here instead of poisoning an outer transaction.
     public int bookAppointment(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        Long patientId = appointment.getPatient().getId();
+        if (!appointment.getAppointmentTime().isAfter(LocalDateTime.now())) return -2;
         try {
-            appointmentRepository.save(appointment);
+            Long id = idAllocator.next(Appointment.class);
+            appointmentRepository.reserveSlot(id, doctorId, patientId,
+                    appointment.getAppointmentTime(), appointment.getStatus());
+            appointment.setId(id);
+            availabilityIndex.markBooked(doctorId, appointment.getAppointmentTime());
+            patientLogWriter.record(PatientLog.CHECK_IN, patientId, doctorId, id);
             return 1;
+        } catch (DataIntegrityViolationException e) {
+            if (!isSlotConflict(e)) return 0;
+            // Another request won the race; make sure the index reflects it
+            slotConflicts.increment();
+            availabilityIndex.markBooked(doctorId, appointment.getAppointmentTime());
+            return -1;
         } catch (Exception e) {
             return 0;
         }
     }
 
+    private static boolean isSlotConflict(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve) {
+                return cve.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
+
     @Transactional
     public Map<String, Object> updateAppointment(Appointment input) {
         Map<String, Object> res = new HashMap<>();
@@ -79,10 +126,14 @@ public class AppointmentService {
             res.put("message", ok == -1 ? "Doctor not found" : "Selected slot not available");
             return res;
         }
+        Long previousDoctorId = existing.getDoctor().getId();
+        LocalDateTime previousTime = existing.getAppointmentTime();
         existing.setAppointmentTime(input.getAppointmentTime());
         existing.setDoctor(input.getDoctor());
         existing.setStatus(input.getStatus());
         appointmentRepository.save(existing);
+        availabilityIndex.markFree(previousDoctorId, previousTime);
+        availabilityIndex.markBooked(input.getDoctor().getId(), input.getAppointmentTime());
         res.put("message", "Appointment updated successfully");
         return res;
     }
@@ -91,8 +142,11 @@ public class AppointmentService {
     public boolean cancelAppointment(Long appointmentId, Long patientId) {
         Optional<Appointment> opt = appointmentRepository.findById(appointmentId);
         if (opt.isEmpty()) return false;
-        if (!opt.get().getPatient().getId().equals(patientId)) return false;
+        Appointment existing = opt.get();
+        if (!existing.getPatient().getId().equals(patientId)) return false;
         appointmentRepository.deleteById(appointmentId);
+        availabilityIndex.markFree(existing.getDoctor().getId(), existing.getAppointmentTime());
+        patientLogWriter.record(PatientLog.CANCEL, patientId, existing.getDoctor().getId(), appointmentId);
         return true;
     }
 
@@ -100,24 +154,10 @@ public class AppointmentService {
     public List<AppointmentDTO> getAppointments(Long doctorId, LocalDate date, String patientName) {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.atTime(23, 59, 59);
-        List<Appointment> list;
         if (patientName == null || patientName.isBlank() || "null".equalsIgnoreCase(patientName)) {
-            list = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
-        } else {
-            list = appointmentRepository.findByDoctorIdAndPatientNameContainingIgnoreCaseAndAppointmentTimeBetween(doctorId, patientName, start, end);
+            return appointmentRepository.findDTOsByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
         }
-        return list.stream().map(a -> new AppointmentDTO(
-                a.getId(),
-                a.getDoctor().getId(),
-                a.getDoctor().getName(),
-                a.getPatient().getId(),
-                a.getPatient().getName(),
-                a.getPatient().getEmail(),
-                a.getPatient().getPhone(),
-                a.getPatient().getAddress(),
-                a.getAppointmentTime(),
-                a.getStatus()
-        )).collect(Collectors.toList());
+        return appointmentRepository.findDTOsByDoctorIdAndPatientNameAndAppointmentTimeBetween(doctorId, patientName, start, end);
     }
 
     @Transactional
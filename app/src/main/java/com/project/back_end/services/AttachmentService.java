@@ -0,0 +1,109 @@
+package com.project.back_end.services;
+
+/*
+  Attachment metadata (file_attachments) on top of AttachmentStore.
+  1. upload: streams the body into the store, then saves one metadata document per upload. Documents
+     carry the content hash, so many uploads of the same file point at one blob.
+  2. find: doctors and admins can read any attachment, patients only the ones they uploaded.
+  3. Deleting metadata leaves the blob in place; other documents may still reference it.
+*/
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.FileAttachment;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.FileAttachmentRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+
+@Timed("clinic.service")
+@org.springframework.stereotype.Service
+public class AttachmentService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final FileAttachmentRepository attachmentRepository;
+    private final AttachmentStore attachmentStore;
+    private final TokenService tokenService;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final long maxSize;
+
+    public AttachmentService(FileAttachmentRepository attachmentRepository,
+                             AttachmentStore attachmentStore,
+                             TokenService tokenService,
+                             DoctorRepository doctorRepository,
+                             PatientRepository patientRepository,
+                             @Value("${clinic.attachments.max-size:200MB}") DataSize maxSize) {
+        this.attachmentRepository = attachmentRepository;
+        this.attachmentStore = attachmentStore;
+        this.tokenService = tokenService;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    // Id of the doctor or patient the (already validated) token belongs to; older tokens fall back to the email
+    public Long principalId(String role, String token) {
+        Long id = tokenService.extractPrincipalId(token);
+        if (id != null || "admin".equals(role)) return id;
+        String email = tokenService.extractEmail(token);
+        if ("doctor".equals(role)) {
+            Doctor d = doctorRepository.findByEmail(email);
+            return d == null ? null : d.getId();
+        }
+        Patient p = patientRepository.findByEmail(email);
+        return p == null ? null : p.getId();
+    }
+
+    // Throws AttachmentStore.TooLargeException past max-size
+    public FileAttachment upload(String role, Long ownerId, String fileName, String contentType,
+                                 InputStream body) throws IOException {
+        AttachmentStore.Stored stored = attachmentStore.write(body, maxSize);
+        FileAttachment a = new FileAttachment();
+        // Id assigned here so the url is part of the single insert
+        a.setId(new ObjectId().toHexString());
+        a.setUrl("/attachments/" + a.getId());
+        a.setFileName(fileName);
+        a.setFileType(extension(fileName));
+        a.setContentType(contentType == null || contentType.isBlank() ? DEFAULT_CONTENT_TYPE : contentType);
+        a.setSize(stored.size());
+        a.setSha256(stored.sha256());
+        a.setOwnerRole(role);
+        a.setOwnerId(ownerId);
+        a.setUploadedAt(LocalDateTime.now());
+        return attachmentRepository.insert(a);
+    }
+
+    // Null when the attachment does not exist or the caller may not read it
+    public FileAttachment find(String id, String role, Long principalId) {
+        FileAttachment a = attachmentRepository.findById(id).orElse(null);
+        if (a == null) return null;
+        if ("patient".equals(role)
+                && !("patient".equals(a.getOwnerRole()) && Objects.equals(a.getOwnerId(), principalId))) return null;
+        return a;
+    }
+
+    public Path blob(FileAttachment attachment) {
+        return attachmentStore.path(attachment.getSha256());
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName == null ? -1 : fileName.lastIndexOf('.');
+        return dot < 0 || dot == fileName.length() - 1 ? null : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
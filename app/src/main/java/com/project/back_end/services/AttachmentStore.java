@@ -0,0 +1,107 @@
+package com.project.back_end.services;
+
+/*
+  Content-addressed blob store for attachments on local disk.
+  1. write() streams the request body through one fixed 64 KB buffer into a temp file while hashing it,
+     so heap use per upload is constant regardless of file size.
+  2. The finished file is renamed to blobs/ab/cd/<sha256>. If that blob already exists the temp file is
+     dropped: identical content is stored once however often it is uploaded.
+  3. Temp files live under the same root, so the final rename is atomic and readers never see a partial blob.
+  4. Blobs are never rewritten, which lets downloads hand the file straight to the connector (sendfile).
+*/
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Component
+public class AttachmentStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path blobs;
+    private final Path tmp;
+
+    public AttachmentStore(@Value("${clinic.attachments.dir:data/attachments}") Path root) {
+        this.blobs = root.resolve("blobs").toAbsolutePath();
+        this.tmp = root.resolve("tmp").toAbsolutePath();
+        try {
+            Files.createDirectories(blobs);
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create attachment store under " + root, e);
+        }
+    }
+
+    // Thrown when the body is longer than the allowed size; nothing is kept
+    public static class TooLargeException extends IOException {
+        public TooLargeException(long maxSize) {
+            super("Attachment exceeds " + maxSize + " bytes");
+        }
+    }
+
+    public record Stored(String sha256, long size) {
+    }
+
+    public Stored write(InputStream body, long maxSize) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ReadableByteChannel in = Channels.newChannel(body);
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxSize) throw new TooLargeException(maxSize);
+                    digest.update(buffer.array(), buffer.arrayOffset(), buffer.limit());
+                    while (buffer.hasRemaining()) out.write(buffer);
+                    buffer.clear();
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path blob = path(hash);
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                try {
+                    Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // A concurrent upload of the same content got there first
+                }
+            }
+            return new Stored(hash, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Location of a blob; null for anything that is not a SHA-256 hex string
+    public Path path(String sha256) {
+        if (sha256 == null || sha256.length() != 64 || !sha256.chars().allMatch(HexFormat::isHexDigit)) return null;
+        return blobs.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.project.back_end.services;
+
+/*
+  In-memory availability index.
+  1. Keeps one compiled SlotTemplate per doctor (slot bitmaps per weekday and date exception,
+     bit = minute of day a slot starts at) and one availability bitmap per doctor per day
+     (that day's template slots minus booked starts).
+  2. Entries are built lazily from MySQL on a miss and then updated incrementally by the
+     booking, update, cancel and doctor maintenance paths. Each day expires day-ttl after it was loaded
+     (local updates keep that deadline), so bookings and cancellations made by other instances show up
+     within day-ttl instead of a free slot being reported taken until restart.
+  3. Mutations bump a per-doctor generation; a lazy load only installs its result if no
+     mutation happened while it was reading, so a concurrent booking is never lost.
+  4. Mutations coming from a transaction are applied after commit, so rolled back work
+     never shows up in the index.
+  5. Bounded: only days from today up to horizon-days ahead are kept (past days are pruned on install,
+     later days are computed but not cached), and a removed doctor leaves no entry behind.
+*/
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class AvailabilityIndex {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    // Shared LocalTime per minute of day, so listing slots allocates no times
+    private static final LocalTime[] TIMES = new LocalTime[MINUTES_PER_DAY];
+
+    static {
+        for (int m = 0; m < MINUTES_PER_DAY; m++) TIMES[m] = LocalTime.of(m / 60, m % 60);
+    }
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final int horizonDays;
+    private final Duration dayTtl;
+
+    private final Map<Long, DoctorSlots> doctors = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(DoctorRepository doctorRepository,
+                             AppointmentRepository appointmentRepository,
+                             @Value("${clinic.availability.horizon-days:90}") int horizonDays,
+                             @Value("${clinic.availability.day-ttl:PT30S}") Duration dayTtl) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.horizonDays = Math.max(0, horizonDays);
+        this.dayTtl = dayTtl;
+    }
+
+    // Sorted free slot start times, empty when the doctor does not exist
+    @Transactional(readOnly = true)
+    public List<LocalTime> availableSlots(Long doctorId, LocalDate date) {
+        long[] day = day(doctorId, date);
+        return day == null ? List.of() : toTimes(day);
+    }
+
+    // Returns: 1 available, 0 not available, -1 doctor not found
+    @Transactional(readOnly = true)
+    public int checkSlot(Long doctorId, LocalDate date, LocalTime time) {
+        long[] day = day(doctorId, date);
+        if (day == null) return -1;
+        if (time.getSecond() != 0 || time.getNano() != 0) return 0;
+        return isSet(day, minuteOf(time)) ? 1 : 0;
+    }
+
+    // Day bitmaps for every doctor over [from, to]. Cached days are reused; all missing days are
+    // filled from a single grouped appointment query. Doctors must come with their schedules loaded.
+    @Transactional(readOnly = true)
+    public Map<Long, long[][]> range(List<Doctor> doctorList, LocalDate from, LocalDate to) {
+        int dayCount = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        Map<Long, long[][]> result = new LinkedHashMap<>();
+        Map<Long, Long> seen = new HashMap<>();
+        Map<Long, SlotTemplate> templates = new HashMap<>();
+        Map<Long, boolean[]> fresh = new HashMap<>();
+
+        for (Doctor doctor : doctorList) {
+            Long id = doctor.getId();
+            long seenGeneration = generation(id).get();
+            DoctorSlots slots = doctors.get(id);
+            SlotTemplate template = slots != null ? slots.template : SlotTemplate.of(doctor);
+            long[][] grid = new long[dayCount][];
+            boolean[] created = new boolean[dayCount];
+            boolean missing = false;
+            for (int i = 0; i < dayCount; i++) {
+                grid[i] = slots == null ? null : slots.days.getIfPresent(from.plusDays(i));
+                if (grid[i] == null) {
+                    grid[i] = template.slotsOn(from.plusDays(i)).clone();
+                    created[i] = true;
+                    missing = true;
+                }
+            }
+            result.put(id, grid);
+            if (missing) {
+                seen.put(id, seenGeneration);
+                templates.put(id, template);
+                fresh.put(id, created);
+            }
+        }
+        if (seen.isEmpty()) return result;
+
+        for (Object[] row : appointmentRepository.findBookedTimes(seen.keySet(), from.atStartOfDay(), to.atTime(23, 59, 59))) {
+            Long id = (Long) row[0];
+            LocalDateTime time = (LocalDateTime) row[1];
+            int i = (int) ChronoUnit.DAYS.between(from, time.toLocalDate());
+            LocalTime t = time.toLocalTime();
+            if (!fresh.get(id)[i] || t.getSecond() != 0 || t.getNano() != 0) continue;
+            clear(result.get(id)[i], minuteOf(t));
+        }
+
+        for (var entry : seen.entrySet()) {
+            Long id = entry.getKey();
+            AtomicLong gen = generation(id);
+            synchronized (gen) {
+                if (!current(id, gen, entry.getValue())) continue;
+                DoctorSlots installed = doctors.computeIfAbsent(id, k -> new DoctorSlots(templates.get(id), dayTtl));
+                long[][] grid = result.get(id);
+                boolean[] created = fresh.get(id);
+                for (int i = 0; i < dayCount; i++) {
+                    if (created[i]) install(installed, from.plusDays(i), grid[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void markBooked(Long doctorId, LocalDateTime appointmentTime) {
+        afterCommit(() -> update(doctorId, appointmentTime, true));
+    }
+
+    public void markFree(Long doctorId, LocalDateTime appointmentTime) {
+        afterCommit(() -> update(doctorId, appointmentTime, false));
+    }
+
+    // Drops everything known about a doctor; used when the schedule or its template changes, or the doctor is removed
+    public void evictDoctor(Long doctorId) {
+        if (doctorId == null) return;
+        afterCommit(() -> {
+            AtomicLong gen = generation(doctorId);
+            synchronized (gen) {
+                gen.incrementAndGet();
+                doctors.remove(doctorId);
+            }
+        });
+    }
+
+    // Like evictDoctor, but also forgets the doctor's generation; used once the doctor is deleted
+    public void removeDoctor(Long doctorId) {
+        if (doctorId == null) return;
+        afterCommit(() -> {
+            AtomicLong gen = generation(doctorId);
+            synchronized (gen) {
+                gen.incrementAndGet();
+                doctors.remove(doctorId);
+                generations.remove(doctorId, gen);
+            }
+        });
+    }
+
+    private long[] day(Long doctorId, LocalDate date) {
+        if (doctorId == null || date == null) return null;
+        DoctorSlots slots = doctors.get(doctorId);
+        if (slots != null) {
+            long[] cached = slots.days.getIfPresent(date);
+            if (cached != null) return cached;
+        }
+
+        AtomicLong gen = generation(doctorId);
+        long seen = gen.get();
+        SlotTemplate template;
+        if (slots != null) {
+            template = slots.template;
+        } else {
+            var doctorOpt = doctorRepository.findById(doctorId);
+            if (doctorOpt.isEmpty()) return null;
+            template = SlotTemplate.of(doctorOpt.get());
+        }
+
+        long[] day = template.slotsOn(date).clone();
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.atTime(23, 59, 59);
+        for (var a : appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end)) {
+            LocalTime t = a.getAppointmentTime().toLocalTime();
+            if (t.getSecond() == 0 && t.getNano() == 0) clear(day, minuteOf(t));
+        }
+
+        synchronized (gen) {
+            if (current(doctorId, gen, seen)) {
+                install(doctors.computeIfAbsent(doctorId, id -> new DoctorSlots(template, dayTtl)), date, day);
+            }
+        }
+        return day;
+    }
+
+    private void update(Long doctorId, LocalDateTime appointmentTime, boolean booked) {
+        if (doctorId == null || appointmentTime == null) return;
+        LocalTime t = appointmentTime.toLocalTime();
+        AtomicLong gen = generation(doctorId);
+        synchronized (gen) {
+            gen.incrementAndGet();
+            DoctorSlots slots = doctors.get(doctorId);
+            if (slots == null || t.getSecond() != 0 || t.getNano() != 0) return;
+            int minute = minuteOf(t);
+            slots.days.asMap().computeIfPresent(appointmentTime.toLocalDate(), (d, current) -> {
+                long[] next = current.clone();
+                if (booked) clear(next, minute);
+                else if (isSet(slots.template.slotsOn(d), minute)) set(next, minute);
+                return next;
+            });
+        }
+    }
+
+    private AtomicLong generation(Long doctorId) {
+        return generations.computeIfAbsent(doctorId, id -> new AtomicLong());
+    }
+
+    // A load may install only if nothing changed since it started and the doctor was not removed meanwhile
+    private boolean current(Long doctorId, AtomicLong gen, long seen) {
+        return gen.get() == seen && generations.get(doctorId) == gen;
+    }
+
+    // Caller holds the doctor's generation lock
+    private void install(DoctorSlots slots, LocalDate date, long[] day) {
+        LocalDate today = LocalDate.now();
+        slots.days.asMap().keySet().removeIf(d -> d.isBefore(today));
+        if (date.isBefore(today) || date.isAfter(today.plusDays(horizonDays))) return;
+        slots.days.asMap().putIfAbsent(date, day);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static List<LocalTime> toTimes(long[] bits) {
+        int count = 0;
+        for (long word : bits) count += Long.bitCount(word);
+        List<LocalTime> times = new ArrayList<>(count);
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int minute = w * 64 + Long.numberOfTrailingZeros(word);
+                times.add(TIMES[minute]);
+                word &= word - 1;
+            }
+        }
+        return times;
+    }
+
+    // Packs a day bitmap against the doctor's schedule: bit i of the result is slot i of the schedule.
+    // Returned as lower-case hex so clients never lose bits to floating point numbers.
+    static String encodeDay(long[] schedule, long[] day) {
+        long[] packed = new long[schedule.length];
+        int i = 0;
+        for (int w = 0; w < schedule.length; w++) {
+            long word = schedule[w];
+            while (word != 0) {
+                long bit = word & -word;
+                if ((day[w] & bit) != 0) packed[i >>> 6] |= 1L << i;
+                i++;
+                word ^= bit;
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (int w = packed.length - 1; w >= 0; w--) {
+            if (hex.length() == 0) {
+                if (packed[w] != 0) hex.append(Long.toHexString(packed[w]));
+            } else {
+                String part = Long.toHexString(packed[w]);
+                hex.append("0".repeat(16 - part.length())).append(part);
+            }
+        }
+        return hex.length() == 0 ? "0" : hex.toString();
+    }
+
+    static int minuteOf(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+
+    private static boolean isSet(long[] bits, int minute) {
+        return (bits[minute >>> 6] & (1L << minute)) != 0;
+    }
+
+    private static void set(long[] bits, int minute) {
+        bits[minute >>> 6] |= 1L << minute;
+    }
+
+    private static void clear(long[] bits, int minute) {
+        bits[minute >>> 6] &= ~(1L << minute);
+    }
+
+    private static final class DoctorSlots {
+        private final SlotTemplate template;
+        private final Cache<LocalDate, long[]> days;
+
+        private DoctorSlots(SlotTemplate template, Duration ttl) {
+            this.template = template;
+            this.days = Caffeine.newBuilder()
+                    .expireAfter(new Expiry<LocalDate, long[]>() {
+                        @Override
+                        public long expireAfterCreate(LocalDate date, long[] day, long currentTime) {
+                            return ttl.toNanos();
+                        }
+
+                        // A local booking or cancellation changes the bitmap but not how old its MySQL read is
+                        @Override
+                        public long expireAfterUpdate(LocalDate date, long[] day, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+
+                        @Override
+                        public long expireAfterRead(LocalDate date, long[] day, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.back_end.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal streaming RFC 4180 reader: comma separated, double-quoted fields with "" escapes and embedded newlines.
+// Reads one record at a time from the underlying reader, so memory is bounded by the longest record.
+final class CsvReader {
+
+    private final Reader in;
+    private int peeked = -2;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Next record, or null at end of input; blank lines are skipped
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) return null;
+            if (c == '\r' || c == '\n') continue;
+            unread(c);
+            return record();
+        }
+    }
+
+    private List<String> record() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field");
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(n);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') unread(n);
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        peeked = c;
+    }
+}
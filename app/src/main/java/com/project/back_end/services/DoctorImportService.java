@@ -0,0 +1,311 @@
+package com.project.back_end.services;
+
+/*
+  Bulk doctor import for admins.
+  1. Input is CSV (header row naming the columns name, specialty, email, password, phone and optionally
+     availableTimes, scheduleTemplate) or JSON Lines (one Doctor object per line). Both are parsed as a stream, one chunk of rows at a time,
+     so memory holds a chunk and the error report whatever the file size.
+  2. CSV availableTimes are written as "09:00-12:00;14:00-17:00"; scheduleTemplate is the template's JSON,
+     as in the JSON Lines format. Rows without a template keep hourly slots, as doctors created one by one do.
+  3. Every row is checked against the Doctor bean constraints (the template's included), and every range in
+     its schedule and template must run forwards.
+  4. Duplicates are found once per chunk: against earlier rows of the same file, then with a single
+     email IN (...) query against the doctor table.
+  5. Each chunk commits on its own: doctors go in with one JDBC batch, their ids drawn up front from Doctor's pooled
+     generator, then their doctor_available_times rows with a second batch, then one JPQL update per distinct
+     schedule template (Hibernate binds the JSON column for the database in use). A failed chunk rejects its
+     rows, later chunks go on.
+  6. DoctorSearchIndex is reloaded once the last chunk has committed.
+*/
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.DoctorImportReport;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.models.ScheduleTemplate;
+import com.project.back_end.repo.DoctorRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Timed("clinic.service")
+@org.springframework.stereotype.Service
+public class DoctorImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorImportService.class);
+
+    public static final String CSV = "csv";
+    public static final String JSONL = "jsonl";
+
+    private static final String DOCTOR_SQL =
+            "insert into doctor (id, name, specialty, email, password, phone) values (?, ?, ?, ?, ?, ?)";
+    private static final String SCHEDULE_SQL =
+            "insert into doctor_available_times (doctor_id, start_time, end_time) values (?, ?, ?)";
+    // Required CSV columns; availableTimes and scheduleTemplate may be left out
+    private static final List<String> COLUMNS = List.of("name", "specialty", "email", "password", "phone");
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final IdAllocator idAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public DoctorImportService(DoctorRepository doctorRepository,
+                               DoctorSearchIndex doctorSearchIndex,
+                               IdAllocator idAllocator,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${clinic.doctor-import.chunk-size:500}") int chunkSize) {
+        this.doctorRepository = doctorRepository;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.idAllocator = idAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // format is CSV or JSONL; an unreadable stream or CSV header throws IOException, bad rows go in the report
+    public DoctorImportReport importDoctors(InputStream in, String format) throws IOException {
+        DoctorImportReport report = new DoctorImportReport();
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource source = JSONL.equalsIgnoreCase(format) ? jsonLines(reader) : csv(reader);
+        Row row;
+        while ((row = source.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, seen, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) importChunk(chunk, seen, report);
+        if (report.getCreated() > 0) doctorSearchIndex.refresh();
+        return report;
+    }
+
+    private void importChunk(List<Row> chunk, Set<String> seen, DoctorImportReport report) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.doctor != null) validate(row);
+            if (row.errors.isEmpty() && !seen.add(key(row.doctor.getEmail()))) {
+                row.errors.add("email: duplicated earlier in the file");
+            }
+            if (row.errors.isEmpty()) valid.add(row);
+            else report.reject(row.number, row.email(), row.errors);
+        }
+        if (valid.isEmpty()) return;
+
+        Set<String> emails = new HashSet<>();
+        for (Row row : valid) emails.add(row.doctor.getEmail());
+        Set<String> existing = new HashSet<>();
+        for (String email : doctorRepository.findEmailsIn(emails)) existing.add(key(email));
+        List<Row> fresh = new ArrayList<>(valid.size());
+        for (Row row : valid) {
+            if (existing.contains(key(row.doctor.getEmail()))) {
+                report.reject(row.number, row.email(), List.of("email: doctor already exists"));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(s -> insert(fresh));
+            report.created(fresh.size());
+        } catch (Exception e) {
+            log.warn("Doctor import chunk of {} rows failed", fresh.size(), e);
+            for (Row row : fresh) report.reject(row.number, row.email(), List.of("insert failed: " + e.getMessage()));
+        }
+    }
+
+    private void insert(List<Row> rows) {
+        List<Object[]> doctors = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Doctor d = row.doctor;
+            d.setId(idAllocator.next(Doctor.class));
+            doctors.add(new Object[]{d.getId(), d.getName(), d.getSpecialty(), d.getEmail(), d.getPassword(), d.getPhone()});
+        }
+        jdbcTemplate.batchUpdate(DOCTOR_SQL, doctors);
+        List<Object[]> schedules = new ArrayList<>();
+        for (Row row : rows) {
+            Doctor d = row.doctor;
+            for (Schedule s : d.getAvailableTimes()) {
+                schedules.add(new Object[]{d.getId(), Time.valueOf(s.getStartTime()), Time.valueOf(s.getEndTime())});
+            }
+        }
+        if (!schedules.isEmpty()) jdbcTemplate.batchUpdate(SCHEDULE_SQL, schedules);
+        // Imports usually share a handful of templates, so this is a statement per template, not per doctor
+        Map<ScheduleTemplate, List<Long>> templates = new LinkedHashMap<>();
+        for (Row row : rows) {
+            ScheduleTemplate t = row.doctor.getScheduleTemplate();
+            if (t != null) templates.computeIfAbsent(t, k -> new ArrayList<>()).add(row.doctor.getId());
+        }
+        templates.forEach(doctorRepository::updateScheduleTemplate);
+    }
+
+    private void validate(Row row) {
+        Doctor d = row.doctor;
+        for (ConstraintViolation<Doctor> v : validator.validate(d)) {
+            row.errors.add(v.getPropertyPath() + ": " + v.getMessage());
+        }
+        if (d.getAvailableTimes() == null) d.setAvailableTimes(new ArrayList<>());
+        if (!forwards(d.getAvailableTimes())) row.errors.add("availableTimes: every slot needs a start before its end");
+        ScheduleTemplate t = d.getScheduleTemplate();
+        if (t == null) return;
+        List<List<Schedule>> ranges = new ArrayList<>();
+        if (t.breaks() != null) ranges.add(t.breaks());
+        if (t.weekdays() != null) ranges.addAll(t.weekdays().values());
+        if (t.exceptions() != null) ranges.addAll(t.exceptions().values());
+        for (List<Schedule> r : ranges) {
+            if (!forwards(r)) {
+                row.errors.add("scheduleTemplate: every range needs a start before its end");
+                return;
+            }
+        }
+    }
+
+    private static boolean forwards(List<Schedule> ranges) {
+        if (ranges == null) return true;
+        for (Schedule s : ranges) {
+            if (s == null || s.getStartTime() == null || s.getEndTime() == null || !s.getStartTime().isBefore(s.getEndTime())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private RowSource jsonLines(BufferedReader reader) {
+        int[] number = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Row row = new Row(++number[0]);
+                try {
+                    row.doctor = objectMapper.readValue(line, Doctor.class);
+                    // A bare JSON null reads as no doctor at all
+                    if (row.doctor == null) row.errors.add("expected a JSON object");
+                } catch (JsonProcessingException e) {
+                    row.errors.add("unreadable JSON: " + e.getOriginalMessage());
+                }
+                return row;
+            }
+            return null;
+        };
+    }
+
+    private RowSource csv(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return () -> null;
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) columns.put(header.get(i).trim(), i);
+        for (String column : COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IOException("CSV header is missing column " + column);
+            }
+        }
+        int[] number = {0};
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) return null;
+            Row row = new Row(++number[0]);
+            Doctor d = new Doctor();
+            d.setName(field(fields, columns, "name"));
+            d.setSpecialty(field(fields, columns, "specialty"));
+            d.setEmail(field(fields, columns, "email"));
+            d.setPassword(field(fields, columns, "password"));
+            d.setPhone(field(fields, columns, "phone"));
+            try {
+                d.setAvailableTimes(schedules(field(fields, columns, "availableTimes")));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                row.errors.add("availableTimes: expected HH:mm-HH:mm slots separated by ';'");
+            }
+            String template = field(fields, columns, "scheduleTemplate");
+            try {
+                if (template != null) d.setScheduleTemplate(objectMapper.readValue(template, ScheduleTemplate.class));
+            } catch (JsonProcessingException e) {
+                row.errors.add("scheduleTemplate: unreadable JSON: " + e.getOriginalMessage());
+            }
+            row.doctor = d;
+            return row;
+        };
+    }
+
+    // Empty cells read as null so @NotNull reports them
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer i = columns.get(name);
+        if (i == null || i >= fields.size()) return null;
+        String v = fields.get(i).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    static List<Schedule> schedules(String value) {
+        List<Schedule> result = new ArrayList<>();
+        if (value == null) return result;
+        for (String slot : value.split(";")) {
+            if (slot.isBlank()) continue;
+            String[] bounds = slot.split("-");
+            if (bounds.length != 2) throw new IllegalArgumentException(slot);
+            Schedule s = new Schedule();
+            s.setStartTime(LocalTime.parse(bounds[0].trim()));
+            s.setEndTime(LocalTime.parse(bounds[1].trim()));
+            result.add(s);
+        }
+        return result;
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    private static final class Row {
+        private final int number;
+        private final List<String> errors = new ArrayList<>();
+        private Doctor doctor;
+
+        private Row(int number) {
+            this.number = number;
+        }
+
+        private String email() {
+            return doctor == null ? null : doctor.getEmail();
+        }
+    }
+}
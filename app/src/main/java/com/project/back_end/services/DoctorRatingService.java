@@ -0,0 +1,190 @@
+package com.project.back_end.services;
+
+/*
+  Patient feedback and per-doctor rating totals.
+  1. submitFeedback inserts the feedback (unique per appointment) with totalsPending = true, then applies one
+     atomic $inc to the doctor's doctor_ratings document: count, sum and the per-star counter. No
+     read-modify-write, no collection scan. The marker is removed once the $inc has landed.
+  2. The $inc only matches while the feedback id is not among the document's recent applied ids, and pushes it
+     there, so re-applying a feedback is a no-op. A feedback still marked pending (crash or failure between the
+     two writes) is re-applied by the sweeper on a fixed delay, and by a repeated submit that gets -3.
+  3. Ratings are served from memory: loaded once from doctor_ratings on first use, replaced with the document
+     each $inc returns, and reloaded on a fixed delay so other instances' feedback shows up too.
+     Listings and filters therefore attach a rating in O(1) per doctor, however much feedback exists.
+  4. Return codes: 1 saved, 0 error, -1 appointment not found or not the patient's,
+     -2 appointment not completed yet, -3 appointment already rated.
+*/
+
+import com.project.back_end.DTO.DoctorRatingDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.DoctorRating;
+import com.project.back_end.models.PatientFeedBack;
+import com.project.back_end.repo.AppointmentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Timed("clinic.service")
+@org.springframework.stereotype.Service
+public class DoctorRatingService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorRatingService.class);
+
+    private static final int COMPLETED = 1;
+    static final String PENDING = "totalsPending";
+    // Applied feedback ids kept per doctor; far more than can pile up between two sweeps
+    private static final String APPLIED = "applied";
+    private static final int APPLIED_KEPT = 1000;
+    private static final int SWEEP_BATCH = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRepository appointmentRepository;
+
+    private final Map<Long, DoctorRatingDTO> ratings = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public DoctorRatingService(MongoTemplate mongoTemplate, AppointmentRepository appointmentRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    public int submitFeedback(Long patientId, PatientFeedBack feedback) {
+        try {
+            Appointment appointment = appointmentRepository.findById(feedback.getAppointmentId()).orElse(null);
+            if (appointment == null || !Objects.equals(appointment.getPatient().getId(), patientId)) return -1;
+            if (appointment.getStatus() != COMPLETED && appointment.getAppointmentTime().isAfter(LocalDateTime.now())) {
+                return -2;
+            }
+            Long doctorId = appointment.getDoctor().getId();
+            feedback.setId(null);
+            feedback.setDoctorId(doctorId);
+            feedback.setPatientId(patientId);
+            feedback.setCreatedAt(LocalDateTime.now());
+            feedback.setTotalsPending(true);
+            mongoTemplate.insert(feedback);
+        } catch (DuplicateKeyException e) {
+            // Already rated; finish the earlier submit if its totals never landed
+            resume(feedback.getAppointmentId());
+            return -3;
+        } catch (Exception e) {
+            log.warn("Saving feedback for appointment {} failed", feedback.getAppointmentId(), e);
+            return 0;
+        }
+        try {
+            applyTotals(feedback);
+        } catch (Exception e) {
+            // The feedback is stored and still marked pending; the sweeper applies it
+            log.warn("Updating rating totals for appointment {} failed, retrying on next sweep", feedback.getAppointmentId(), e);
+        }
+        return 1;
+    }
+
+    // Null when the doctor has no feedback yet
+    public DoctorRatingDTO rating(Long doctorId) {
+        ensureLoaded();
+        return ratings.get(doctorId);
+    }
+
+    // Re-applies feedback whose totals update did not complete
+    @Scheduled(fixedDelayString = "${clinic.ratings.sweep-ms:30000}")
+    public void sweep() {
+        try {
+            List<PatientFeedBack> batch;
+            do {
+                batch = mongoTemplate.find(new Query(Criteria.where(PENDING).is(true)).limit(SWEEP_BATCH), PatientFeedBack.class);
+                for (PatientFeedBack f : batch) applyTotals(f);
+            } while (batch.size() == SWEEP_BATCH);
+        } catch (Exception e) {
+            log.warn("Rating totals sweep failed, retrying on next run", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.ratings.refresh-ms:60000}")
+    public void refresh() {
+        if (!loaded) return;
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Refreshing doctor ratings failed", e);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        lock.lock();
+        try {
+            if (loaded) return;
+            try {
+                reload();
+            } catch (Exception e) {
+                // Listings go out without ratings rather than failing; the next refresh retries
+                log.warn("Loading doctor ratings failed", e);
+            }
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resume(Long appointmentId) {
+        try {
+            PatientFeedBack existing = mongoTemplate.findOne(new Query(Criteria.where("appointmentId").is(appointmentId)
+                    .and(PENDING).is(true)), PatientFeedBack.class);
+            if (existing != null) applyTotals(existing);
+        } catch (Exception e) {
+            log.warn("Updating rating totals for appointment {} failed, retrying on next sweep", appointmentId, e);
+        }
+    }
+
+    // Idempotent: a feedback id already in the doctor's applied list makes the filter miss and the upsert
+    // collide on _id, so nothing is counted twice. The same collision happens when two first ratings for a
+    // doctor race to create the document; the loser is not in the list yet and simply retries.
+    private void applyTotals(PatientFeedBack feedback) {
+        Long doctorId = feedback.getDoctorId();
+        int stars = feedback.getRating();
+        Query notApplied = new Query(Criteria.where("_id").is(doctorId).and(APPLIED).ne(feedback.getId()));
+        Update inc = new Update().inc("count", 1).inc("sum", stars).inc("stars." + stars, 1)
+                .push(APPLIED).slice(-APPLIED_KEPT).each(feedback.getId());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                DoctorRating totals = mongoTemplate.findAndModify(notApplied, inc,
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), DoctorRating.class);
+                if (totals != null) keepNewest(doctorId, DoctorRatingDTO.of(totals));
+                break;
+            } catch (DuplicateKeyException e) {
+                if (mongoTemplate.exists(new Query(Criteria.where("_id").is(doctorId).and(APPLIED).is(feedback.getId())),
+                        DoctorRating.class)) break;
+                if (attempt == 3) throw e;
+            }
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(feedback.getId())),
+                new Update().unset(PENDING), PatientFeedBack.class);
+    }
+
+    // One document per rated doctor, so this stays small
+    private void reload() {
+        Query all = new Query();
+        all.fields().exclude(APPLIED);
+        for (DoctorRating r : mongoTemplate.find(all, DoctorRating.class)) keepNewest(r.getId(), DoctorRatingDTO.of(r));
+    }
+
+    // Totals only grow, so a snapshot read before a concurrent $inc never replaces the newer one
+    private void keepNewest(Long doctorId, DoctorRatingDTO rating) {
+        ratings.merge(doctorId, rating, (current, next) -> next.getCount() >= current.getCount() ? next : current);
+    }
+}
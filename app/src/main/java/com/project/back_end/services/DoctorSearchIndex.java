@@ -0,0 +1,256 @@
+package com.project.back_end.services;
+
+/*
+  In-memory doctor search index used by the doctor filter endpoint.
+  1. Name: trigram posting lists over the lower-cased name; candidates are re-checked with a substring match,
+     so results are identical to the old LIKE '%name%' queries. Queries shorter than a trigram scan all entries.
+  2. Specialty: exact, case-insensitive map from specialty to doctor ids.
+  3. Time: AM/PM bitmask precomputed from the doctor's schedule (AM = a slot starts before noon,
+     PM = a slot ends after noon), same rule the old matchesTime helper applied.
+  4. Loaded from MySQL on first use and kept current by DoctorService save/update/delete. refresh() reloads it
+     on a fixed delay and after bulk imports, so writes made by other instances or straight to the database
+     show up too. Doctors written here while a reload's query runs keep the newer local entry.
+     Entries hold DoctorSummary read models, so serializing results never touches the database.
+*/
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.repo.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class DoctorSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorSearchIndex.class);
+
+    static final int AM = 1;
+    static final int PM = 2;
+    private static final int GRAM = 3;
+
+    private final DoctorRepository doctorRepository;
+
+    // Sorted by id so results keep the order the table scans used to return
+    private final Map<Long, Entry> entries = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> nameGrams = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> specialties = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // Explicit lock rather than synchronized: the initial load runs a query while holding it,
+    // which would pin the carrier thread when requests run on virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    // One reload at a time; ids written locally while it runs (guarded by lock) are skipped when it applies
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private Set<Long> touchedDuringReload;
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    // Any combination of criteria; null or blank values are ignored
+    public List<DoctorSummary> search(String name, String speciality, String time) {
+        ensureLoaded();
+        String nameKey = blank(name) ? null : name.toLowerCase(Locale.ROOT);
+        int timeMask = blank(time) ? 0 : timeMask(time);
+        if (!blank(time) && timeMask == 0) return List.of();
+
+        Collection<Long> candidates;
+        if (!blank(speciality)) {
+            candidates = specialties.getOrDefault(speciality.toLowerCase(Locale.ROOT), Set.of());
+        } else if (nameKey != null && nameKey.length() >= GRAM) {
+            candidates = nameCandidates(nameKey);
+        } else {
+            candidates = entries.keySet();
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry e = entries.get(id);
+            if (e == null) continue;
+            if (nameKey != null && !e.name.contains(nameKey)) continue;
+            if (!blank(speciality) && !e.specialty.equalsIgnoreCase(speciality)) continue;
+            if (timeMask != 0 && (e.timeMask & timeMask) == 0) continue;
+            matches.add(e);
+        }
+        matches.sort((a, b) -> Long.compare(a.doctor.getId(), b.doctor.getId()));
+        List<DoctorSummary> result = new ArrayList<>(matches.size());
+        for (Entry e : matches) result.add(e.doctor);
+        return result;
+    }
+
+    // Before the first search nothing is held, so writes are skipped and picked up by the initial load
+    public void put(Doctor doctor) {
+        lock.lock();
+        try {
+            if (!loaded) return;
+            index(doctor);
+            touched(doctor.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long doctorId) {
+        if (doctorId == null) return;
+        lock.lock();
+        try {
+            unindex(doctorId);
+            touched(doctorId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.search.refresh-ms:60000}")
+    public void refresh() {
+        if (!loaded) return;
+        reloadLock.lock();
+        try {
+            lock.lock();
+            try {
+                touchedDuringReload = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+            // Queried without holding lock, so searches and local writes go on meanwhile
+            List<Doctor> doctors = doctorRepository.findAllWithSchedule();
+            lock.lock();
+            try {
+                Set<Long> current = new HashSet<>();
+                for (Doctor d : doctors) {
+                    current.add(d.getId());
+                    if (!touchedDuringReload.contains(d.getId())) index(d);
+                }
+                for (Long id : new ArrayList<>(entries.keySet())) {
+                    if (!current.contains(id) && !touchedDuringReload.contains(id)) unindex(id);
+                }
+            } finally {
+                touchedDuringReload = null;
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            log.warn("Refreshing the doctor search index failed", e);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private void touched(Long doctorId) {
+        if (touchedDuringReload != null && doctorId != null) touchedDuringReload.add(doctorId);
+    }
+
+    private void unindex(Long doctorId) {
+        Entry e = entries.remove(doctorId);
+        if (e == null) return;
+        for (String g : grams(e.name)) {
+            Set<Long> ids = nameGrams.get(g);
+            if (ids != null) ids.remove(doctorId);
+        }
+        Set<Long> ids = specialties.get(e.specialty.toLowerCase(Locale.ROOT));
+        if (ids != null) ids.remove(doctorId);
+    }
+
+    private void index(Doctor doctor) {
+        if (doctor == null || doctor.getId() == null) return;
+        unindex(doctor.getId());
+        Entry e = new Entry(summaryOf(doctor));
+        entries.put(doctor.getId(), e);
+        for (String g : grams(e.name)) nameGrams.computeIfAbsent(g, k -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+        specialties.computeIfAbsent(e.specialty.toLowerCase(Locale.ROOT), k -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        lock.lock();
+        try {
+            if (loaded) return;
+            for (Doctor d : doctorRepository.findAllWithSchedule()) index(d);
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Collection<Long> nameCandidates(String nameKey) {
+        Set<Long> result = null;
+        for (String g : grams(nameKey)) {
+            Set<Long> ids = nameGrams.get(g);
+            if (ids == null) return Set.of();
+            if (result == null) result = new HashSet<>(ids);
+            else result.retainAll(ids);
+            if (result.isEmpty()) return result;
+        }
+        return result == null ? Set.of() : result;
+    }
+
+    private static Set<String> grams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) grams.add(s.substring(i, i + GRAM));
+        return grams;
+    }
+
+    static int timeMask(String time) {
+        if ("AM".equalsIgnoreCase(time)) return AM;
+        if ("PM".equalsIgnoreCase(time)) return PM;
+        return 0;
+    }
+
+    static int scheduleMask(List<Schedule> schedules) {
+        int mask = 0;
+        if (schedules == null) return mask;
+        for (Schedule s : schedules) {
+            if (s == null || s.getStartTime() == null || s.getEndTime() == null) continue;
+            if (s.getStartTime().isBefore(LocalTime.NOON)) mask |= AM;
+            if (s.getEndTime().isAfter(LocalTime.NOON)) mask |= PM;
+        }
+        return mask;
+    }
+
+    private static boolean blank(String v) {
+        return v == null || v.isBlank();
+    }
+
+    // Read model with the schedule materialized, safe to hand out after the session is gone
+    private static DoctorSummary summaryOf(Doctor d) {
+        DoctorSummary c = new DoctorSummary(d.getId(), d.getName(), d.getSpecialty(), d.getEmail(), d.getPhone());
+        if (d.getAvailableTimes() != null) {
+            for (Schedule s : d.getAvailableTimes()) {
+                if (s == null) continue;
+                Schedule copy = new Schedule();
+                copy.setStartTime(s.getStartTime());
+                copy.setEndTime(s.getEndTime());
+                c.getAvailableTimes().add(copy);
+            }
+        }
+        return c;
+    }
+
+    private static final class Entry {
+        private final DoctorSummary doctor;
+        private final String name;
+        private final String specialty;
+        private final int timeMask;
+
+        private Entry(DoctorSummary doctor) {
+            this.doctor = doctor;
+            this.name = doctor.getName() == null ? "" : doctor.getName().toLowerCase(Locale.ROOT);
+            this.specialty = doctor.getSpecialty() == null ? "" : doctor.getSpecialty();
+            this.timeMask = scheduleMask(doctor.getAvailableTimes());
+        }
+    }
+}
@@ -4,72 +4,126 @@ package com.project.back_end.services;
   INSTRUCTIONS (kept as requested):
   1. Mark as @Service; inject DoctorRepository, AppointmentRepository, TokenService via constructor.
   2. Use @Transactional(readOnly = true) on read queries.
-  3. getDoctorAvailabilitySlots: compute available hourly slots for a date excluding booked ones.
+  3. getDoctorAvailabilitySlots: available slots for a date (schedule template, default hourly) excluding booked ones
+     (served by AvailabilityIndex).
   4. saveDoctor/updateDoctor/deleteDoctor: handle existence checks and return codes (-1 not found/exist conflict, 0 error, 1 success).
   5. validateDoctor: simple credential validation.
-  6. Filtering helpers: support combinations of name/time/speciality; isolate AM/PM logic.
+  6. Filtering lives in DoctorSearchIndex; every write here keeps that index current.
+  7. Catalogue entries carry the doctor's rating from DoctorRatingService (in memory, no extra query).
+  8. deleteDoctor is set-based: in one transaction the doctor's appointments are copied to appointment_archive
+     with one INSERT ... SELECT, their payments are unlinked, and they are removed with one DELETE.
+     Their prescriptions are moved afterwards, in batches, by PrescriptionArchiver.
 */
 
+import com.project.back_end.DTO.DoctorAvailabilityDTO;
+import com.project.back_end.DTO.DoctorSummary;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Schedule;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PaymentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+@Timed("clinic.service")
 @org.springframework.stereotype.Service
 public class DoctorService {
 
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final AvailabilityIndex availabilityIndex;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final DoctorRatingService doctorRatingService;
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final PaymentRepository paymentRepository;
+    private final PrescriptionArchiver prescriptionArchiver;
+    private final TransactionTemplate transactionTemplate;
 
     public DoctorService(DoctorRepository doctorRepository,
                          AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         TokenService tokenService,
+                         AvailabilityIndex availabilityIndex,
+                         DoctorSearchIndex doctorSearchIndex,
+                         DoctorRatingService doctorRatingService,
+                         ArchivedAppointmentRepository archiveRepository,
+                         PaymentRepository paymentRepository,
+                         PrescriptionArchiver prescriptionArchiver,
+                         PlatformTransactionManager transactionManager) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.availabilityIndex = availabilityIndex;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.doctorRatingService = doctorRatingService;
+        this.archiveRepository = archiveRepository;
+        this.paymentRepository = paymentRepository;
+        this.prescriptionArchiver = prescriptionArchiver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional(readOnly = true)
     public List<LocalTime> getDoctorAvailabilitySlots(Long doctorId, LocalDate date) {
-        var doctorOpt = doctorRepository.findById(doctorId);
-        if (doctorOpt.isEmpty()) return List.of();
-        Doctor doctor = doctorOpt.get();
-
-        // Collect booked start times for that date
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(23, 59, 59);
-        var booked = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end)
-                .stream().map(a -> a.getAppointmentTime().toLocalTime()).collect(Collectors.toSet());
-
-        Set<LocalTime> available = new HashSet<>();
-        if (doctor.getAvailableTimes() != null) {
-            for (Schedule s : doctor.getAvailableTimes()) {
-                if (s == null || s.getStartTime() == null || s.getEndTime() == null) continue;
-                LocalTime t = s.getStartTime();
-                while (t.isBefore(s.getEndTime())) {
-                    if (!booked.contains(t)) available.add(t);
-                    t = t.plusHours(1);
-                }
+        return availabilityIndex.availableSlots(doctorId, date);
+    }
+
+    // Returns: 1 available, 0 not available, -1 doctor not found
+    public int checkSlot(Long doctorId, LocalDate date, LocalTime time) {
+        return availabilityIndex.checkSlot(doctorId, date, time);
+    }
+
+    public long countBySpeciality(String speciality) {
+        return doctorRepository.countBySpecialty(speciality);
+    }
+
+    // Availability for many doctors over many days, fetched with one doctor query and one grouped appointment query
+    @Transactional(readOnly = true)
+    public List<DoctorAvailabilityDTO> getAvailabilityRange(List<Long> doctorIds, String speciality,
+                                                            LocalDate from, LocalDate to) {
+        List<Doctor> doctors = doctorIds != null && !doctorIds.isEmpty()
+                ? doctorRepository.findWithScheduleByIdIn(doctorIds)
+                : doctorRepository.findWithScheduleBySpecialty(speciality);
+        var grids = availabilityIndex.range(doctors, from, to);
+        List<DoctorAvailabilityDTO> result = new ArrayList<>(doctors.size());
+        for (Doctor d : doctors) {
+            // Slot list covers every slot offered somewhere in the range; each day's mask is packed against it
+            long[] schedule = SlotTemplate.of(d).union(from, to);
+            List<String> slots = AvailabilityIndex.toTimes(schedule).stream()
+                    .map(t -> t.format(SLOT_FORMAT)).collect(Collectors.toList());
+            long[][] grid = grids.get(d.getId());
+            Map<String, String> days = new LinkedHashMap<>();
+            for (int i = 0; i < grid.length; i++) {
+                days.put(from.plusDays(i).toString(), AvailabilityIndex.encodeDay(schedule, grid[i]));
             }
+            result.add(new DoctorAvailabilityDTO(d.getId(), d.getName(), slots, days));
         }
-        return new ArrayList<>(available).stream().sorted().collect(Collectors.toList());
+        return result;
     }
 
     public int saveDoctor(Doctor doctor) {
         try {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) return -1;
             doctorRepository.save(doctor);
+            doctorSearchIndex.put(doctor);
             return 1;
         } catch (Exception e) {
             return 0;
@@ -78,24 +132,53 @@ public class DoctorService {
 
     public int updateDoctor(Doctor doctor) {
         try {
-            if (doctor.getId() == null || !doctorRepository.existsById(doctor.getId())) return -1;
-            doctorRepository.save(doctor);
+            if (doctor.getId() == null) return -1;
+            var existing = doctorRepository.findById(doctor.getId());
+            if (existing.isEmpty()) return -1;
+            boolean passwordChanged = !Objects.equals(existing.get().getPassword(), doctor.getPassword());
+            transactionTemplate.executeWithoutResult(s -> {
+                doctorRepository.save(doctor);
+                if (passwordChanged) tokenService.revokeTokens("doctor", doctor.getId());
+            });
+            doctorSearchIndex.put(doctor);
+            availabilityIndex.evictDoctor(doctor.getId());
             return 1;
         } catch (Exception e) {
             return 0;
         }
     }
 
+    // Doctor catalogue: one projection query (plus count when paged) and one schedule query per page
     @Transactional(readOnly = true)
-    public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+    public Page<DoctorSummary> getDoctors(Pageable pageable) {
+        Page<DoctorSummary> page = doctorRepository.findSummaries(pageable);
+        if (page.isEmpty()) return page;
+        Map<Long, DoctorSummary> byId = new HashMap<>();
+        for (DoctorSummary d : page) byId.put(d.getId(), d);
+        for (Object[] row : doctorRepository.findSchedulesByDoctorIdIn(byId.keySet())) {
+            Schedule s = new Schedule();
+            s.setStartTime((LocalTime) row[1]);
+            s.setEndTime((LocalTime) row[2]);
+            byId.get((Long) row[0]).getAvailableTimes().add(s);
+        }
+        for (DoctorSummary d : page) d.getAvailableTimes().sort(Comparator.comparing(Schedule::getStartTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return page.map(d -> d.withRating(doctorRatingService.rating(d.getId())));
     }
 
     public int deleteDoctor(Long id) {
         try {
             if (!doctorRepository.existsById(id)) return -1;
-            appointmentRepository.deleteAllByDoctorId(id);
-            doctorRepository.deleteById(id);
+            transactionTemplate.executeWithoutResult(s -> {
+                archiveRepository.archiveByDoctorId(id, LocalDateTime.now());
+                paymentRepository.detachFromDoctorAppointments(id);
+                appointmentRepository.deleteByDoctorId(id);
+                doctorRepository.deleteById(id);
+                tokenService.revokeTokens("doctor", id);
+            });
+            prescriptionArchiver.wake();
+            availabilityIndex.removeDoctor(id);
+            doctorSearchIndex.remove(id);
             return 1;
         } catch (Exception e) {
             return 0;
@@ -108,60 +191,4 @@ public class DoctorService {
         if (!d.getPassword().equals(password)) return null;
         return d;
     }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> findDoctorByName(String name) {
-        return doctorRepository.findByNameLike(name);
-    }
-
-    // Filtering helpers
-    private boolean matchesTime(Doctor d, String time) {
-        if (d.getAvailableTimes() == null) return false;
-        boolean am = "AM".equalsIgnoreCase(time);
-        boolean pm = "PM".equalsIgnoreCase(time);
-        for (Schedule s : d.getAvailableTimes()) {
-            if (s == null || s.getStartTime() == null || s.getEndTime() == null) continue;
-            LocalTime st = s.getStartTime();
-            LocalTime et = s.getEndTime();
-            if (am && st.isBefore(LocalTime.NOON)) return true;
-            if (pm && et.isAfter(LocalTime.NOON)) return true;
-        }
-        return false;
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorsByNameSpecilityandTime(String name, String speciality, String time) {
-        return doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, speciality)
-                .stream().filter(d -> matchesTime(d, time)).collect(Collectors.toList());
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByTime(List<Doctor> doctors, String time) {
-        return doctors.stream().filter(d -> matchesTime(d, time)).collect(Collectors.toList());
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByNameAndTime(String name, String time) {
-        return filterDoctorByTime(findDoctorByName(name), time);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByNameAndSpecility(String name, String speciality) {
-        return doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, speciality);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorByTimeAndSpecility(String speciality, String time) {
-        return filterDoctorByTime(doctorRepository.findBySpecialtyIgnoreCase(speciality), time);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorBySpecility(String speciality) {
-        return doctorRepository.findBySpecialtyIgnoreCase(speciality);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Doctor> filterDoctorsByTime(String time) {
-        return filterDoctorByTime(doctorRepository.findAll(), time);
-    }
 }
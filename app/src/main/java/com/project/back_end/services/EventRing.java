@@ -0,0 +1,65 @@
+package com.project.back_end.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free ring buffer for many producers and a single consumer (Vyukov's bounded queue).
+// offer() never blocks: it returns false when the ring is full so callers can account for the drop.
+final class EventRing<T> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    boolean offer(T event) {
+        long pos = tail.get();
+        while (true) {
+            int i = (int) (pos & mask);
+            long diff = sequences.get(i) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[i] = event;
+                    // Publishes the slot to the consumer
+                    sequences.set(i, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    // Consumer side only
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long pos = head.get();
+        int i = (int) (pos & mask);
+        if (sequences.get(i) != pos + 1) return null;
+        T event = (T) slots[i];
+        slots[i] = null;
+        sequences.set(i, pos + mask + 1);
+        head.lazySet(pos + 1);
+        return event;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,30 @@
+package com.project.back_end.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.stereotype.Component;
+
+// Ids for rows written outside Hibernate (native or JDBC batch inserts), drawn from the entity's own generator
+// so they share its pooled blocks with ordinary persists. Most calls are served from memory.
+@Component
+public class IdAllocator {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public IdAllocator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public Long next(Class<?> entity) {
+        var generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entity).getGenerator();
+        // A block refill runs in its own isolated transaction, so no caller transaction is needed
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.back_end.services;
+
+/*
+  Doctor-patient messaging on the messages collection.
+  1. A conversation is the (doctorId, patientId) pair; the caller's token supplies one side, the path the other.
+  2. getConversation: newest-first keyset pages on (timestamp, id), served by the conversation_timestamp index,
+     so every page costs one bounded index range scan however long the conversation gets.
+  3. sendMessage: stores the message, then pushes it to both participants' open streams (MessageStreams).
+  4. Only a doctor and patient who share an appointment may message each other or read their conversation;
+     otherwise nothing is stored or pushed.
+  5. Return codes follow the other services: 1 success, 0 error, -1 counterpart not found,
+     -2 no appointment between the two.
+*/
+
+import com.project.back_end.DTO.MessagePageDTO;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Message;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.MessageRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Timed("clinic.service")
+@org.springframework.stereotype.Service
+public class MessageService {
+
+    private final MessageRepository messageRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final TokenService tokenService;
+    private final MessageStreams messageStreams;
+
+    public MessageService(MessageRepository messageRepository,
+                          DoctorRepository doctorRepository,
+                          PatientRepository patientRepository,
+                          AppointmentRepository appointmentRepository,
+                          TokenService tokenService,
+                          MessageStreams messageStreams) {
+        this.messageRepository = messageRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.tokenService = tokenService;
+        this.messageStreams = messageStreams;
+    }
+
+    // Id of the doctor or patient the (already validated) token belongs to; older tokens fall back to the email
+    public Long principalId(String role, String token) {
+        Long id = tokenService.extractPrincipalId(token);
+        if (id != null) return id;
+        String email = tokenService.extractEmail(token);
+        if ("doctor".equals(role)) {
+            Doctor d = doctorRepository.findByEmail(email);
+            return d == null ? null : d.getId();
+        }
+        Patient p = patientRepository.findByEmail(email);
+        return p == null ? null : p.getId();
+    }
+
+    public int sendMessage(String role, Long principalId, Long counterpartId, String text) {
+        try {
+            boolean fromDoctor = "doctor".equals(role);
+            boolean exists = fromDoctor ? patientRepository.existsById(counterpartId) : doctorRepository.existsById(counterpartId);
+            if (!exists) return -1;
+            if (!sharesAppointment(role, principalId, counterpartId)) return -2;
+            Message message = fromDoctor
+                    ? new Message(counterpartId, principalId, text)
+                    : new Message(principalId, counterpartId, text);
+            // Mongo keeps milliseconds; truncating here keeps cursors built from this instance exact
+            message.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+            messageRepository.insert(message);
+            messageStreams.publish(message);
+            return 1;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    public boolean sharesAppointment(String role, Long principalId, Long counterpartId) {
+        return "doctor".equals(role)
+                ? appointmentRepository.existsByDoctorIdAndPatientId(principalId, counterpartId)
+                : appointmentRepository.existsByDoctorIdAndPatientId(counterpartId, principalId);
+    }
+
+    public MessagePageDTO getConversation(String role, Long principalId, Long counterpartId, String cursor, int size) {
+        var before = MessagePageDTO.decodeCursor(cursor);
+        Long doctorId = "doctor".equals(role) ? principalId : counterpartId;
+        Long patientId = "doctor".equals(role) ? counterpartId : principalId;
+        var rows = messageRepository.findConversationBefore(doctorId, patientId,
+                before.getTimestamp(), before.getId(), Limit.of(size + 1));
+        return MessagePageDTO.of(rows, size);
+    }
+}
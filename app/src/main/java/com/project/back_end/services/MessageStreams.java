@@ -0,0 +1,124 @@
+package com.project.back_end.services;
+
+/*
+  Live delivery of new messages over Server-Sent Events.
+  1. Each signed-in doctor or patient holds one stream that carries every conversation they are part of,
+     so clients do not poll the history endpoint for updates.
+  2. publish() hands delivery to the task executor; a slow or dead client never delays the sender.
+  3. A periodic comment keeps idle streams open through proxies and clears out disconnected clients. It is sent
+     from the task executor too, one task per principal, so a stalled client never holds up the scheduler thread.
+  4. Streams are held in this instance's memory: with several instances behind a load balancer a client
+     only hears about messages sent through the instance it is connected to.
+*/
+
+import com.project.back_end.models.Message;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class MessageStreams {
+
+    // Per principal; a few tabs or devices, not an unbounded number of leaked connections
+    static final int MAX_STREAMS_PER_USER = 5;
+
+    private final TaskExecutor taskExecutor;
+    private final long timeoutMillis;
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public MessageStreams(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                          MeterRegistry meterRegistry,
+                          @Value("${clinic.messages.stream-timeout:PT30M}") Duration timeout) {
+        this.taskExecutor = taskExecutor;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("clinic.messages.streams", subscribers,
+                s -> s.values().stream().mapToInt(Set::size).sum()).register(meterRegistry);
+    }
+
+    // Returns null when the principal already holds MAX_STREAMS_PER_USER streams
+    public SseEmitter subscribe(String role, Long principalId) {
+        String key = key(role, principalId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AtomicBoolean added = new AtomicBoolean();
+        // Atomic with unsubscribe(), which drops the set once it is empty
+        subscribers.compute(key, (k, streams) -> {
+            if (streams == null) streams = ConcurrentHashMap.newKeySet();
+            if (streams.size() < MAX_STREAMS_PER_USER) added.set(streams.add(emitter));
+            return streams.isEmpty() ? null : streams;
+        });
+        if (!added.get()) return null;
+        Runnable remove = () -> unsubscribe(key, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        // Commits the response headers so the client sees the stream open right away
+        send(key, emitter, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    public void publish(Message message) {
+        try {
+            taskExecutor.execute(() -> deliver(message));
+        } catch (Exception e) {
+            // Executor saturated or shutting down; the message is stored and shows up in the history
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.messages.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach((key, streams) -> {
+            try {
+                taskExecutor.execute(() -> {
+                    for (SseEmitter emitter : streams) send(key, emitter, SseEmitter.event().comment("keep-alive"));
+                });
+            } catch (Exception e) {
+                // Executor saturated or shutting down; the next heartbeat tries again
+            }
+        });
+    }
+
+    private void deliver(Message message) {
+        fanOut(key("doctor", message.getDoctorId()), message);
+        fanOut(key("patient", message.getPatientId()), message);
+    }
+
+    private void fanOut(String key, Message message) {
+        Set<SseEmitter> streams = subscribers.get(key);
+        if (streams == null) return;
+        for (SseEmitter emitter : streams) {
+            send(key, emitter, SseEmitter.event().id(message.getId()).name("message").data(message));
+        }
+    }
+
+    private void send(String key, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (Exception e) {
+            // Client went away; drop the stream
+            unsubscribe(key, emitter);
+            emitter.complete();
+        }
+    }
+
+    private void unsubscribe(String key, SseEmitter emitter) {
+        subscribers.computeIfPresent(key, (k, streams) -> {
+            streams.remove(emitter);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private static String key(String role, Long principalId) {
+        return role + ":" + principalId;
+    }
+}
@@ -0,0 +1,194 @@
+package com.project.back_end.services;
+
+/*
+  Asynchronous, batched writer for PatientLog events.
+  1. record() only builds the event and offers it to a bounded ring buffer; the calling request never
+     waits on Mongo. Inside a transaction the event is queued after commit, so rolled-back work is not logged.
+  2. Nothing polls: a flush is handed to the application task executor when batch-size events are waiting,
+     and a fixed-delay tick on the task scheduler every max-delay flushes whatever partial batch is left.
+     Both follow the configured execution mode (platform or virtual threads).
+  3. When the ring is full new events are dropped and counted (clinic.patient_logs.dropped) rather than
+     blocking the request. A failed insert keeps its batch and is retried after a pause; the ring absorbs
+     the backlog meanwhile, and overflows are counted the same way.
+  4. On shutdown the remaining events are drained on the closing thread before the Mongo client closes.
+*/
+
+import com.project.back_end.models.PatientLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class PatientLogWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientLogWriter.class);
+
+    private static final long RETRY_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskExecutor taskExecutor;
+    private final TaskScheduler taskScheduler;
+    private final EventRing<PatientLog> ring;
+    private final int batchSize;
+    private final Duration maxDelay;
+
+    private final Counter written;
+    private final Counter discarded;
+    private final Counter dropped;
+
+    // Events taken off the ring but not yet inserted; guarded by lock
+    private final List<PatientLog> pending;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile long retryAt;
+
+    private volatile boolean running;
+    private ScheduledFuture<?> tick;
+
+    public PatientLogWriter(MongoTemplate mongoTemplate,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                            TaskScheduler taskScheduler,
+                            @Value("${clinic.patient-log.capacity:8192}") int capacity,
+                            @Value("${clinic.patient-log.batch-size:500}") int batchSize,
+                            @Value("${clinic.patient-log.max-delay:PT1S}") Duration maxDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+        this.taskScheduler = taskScheduler;
+        this.ring = new EventRing<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelay = maxDelay;
+        this.pending = new ArrayList<>(this.batchSize);
+        this.written = Counter.builder("clinic.patient_logs").tag("result", "written").register(meterRegistry);
+        this.discarded = Counter.builder("clinic.patient_logs").tag("result", "discarded").register(meterRegistry);
+        this.dropped = Counter.builder("clinic.patient_logs.dropped").register(meterRegistry);
+        Gauge.builder("clinic.patient_logs.buffered", ring, EventRing::size).register(meterRegistry);
+    }
+
+    public void record(String action, Long patientId, Long doctorId, Long appointmentId) {
+        PatientLog event = new PatientLog(action, patientId, doctorId, appointmentId, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(PatientLog event) {
+        if (!ring.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        if (ring.size() >= batchSize) queueFlush(false);
+    }
+
+    // At most one full-batch flush waits in the executor at a time; a tick may add one for the partial batch
+    private void queueFlush(boolean partial) {
+        if (!running || (!partial && !flushQueued.compareAndSet(false, true))) return;
+        try {
+            taskExecutor.execute(() -> {
+                if (!partial) flushQueued.set(false);
+                drain(partial);
+            });
+        } catch (Exception e) {
+            if (!partial) flushQueued.set(false);
+            log.debug("Patient log flush not started; the next tick or shutdown picks it up", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        tick = taskScheduler.scheduleWithFixedDelay(() -> {
+            if (ring.size() > 0 || retryAt != 0) queueFlush(true);
+        }, maxDelay);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        if (tick != null) tick.cancel(false);
+        // Final drain on the closing thread, one attempt per batch
+        lock.lock();
+        try {
+            do {
+                fill();
+            } while (!pending.isEmpty() && flush());
+            int left = pending.size() + ring.size();
+            if (left > 0) {
+                discarded.increment(left);
+                log.warn("Discarded {} patient log events on shutdown", left);
+            }
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Inserts full batches, and with partial also the remainder; stops at the first failure until the pause is over
+    private void drain(boolean partial) {
+        lock.lock();
+        try {
+            if (!running || (retryAt != 0 && System.nanoTime() - retryAt < 0)) return;
+            while (true) {
+                fill();
+                if (pending.isEmpty() || (!partial && pending.size() < batchSize)) return;
+                if (!flush()) {
+                    retryAt = System.nanoTime() + RETRY_PAUSE_NANOS;
+                    return;
+                }
+                retryAt = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fill() {
+        PatientLog event;
+        while (pending.size() < batchSize && (event = ring.poll()) != null) pending.add(event);
+    }
+
+    private boolean flush() {
+        try {
+            mongoTemplate.insert(pending, PatientLog.class);
+            written.increment(pending.size());
+            pending.clear();
+            return true;
+        } catch (Exception e) {
+            log.warn("Patient log insert of {} events failed, retrying", pending.size(), e);
+            return false;
+        }
+    }
+}
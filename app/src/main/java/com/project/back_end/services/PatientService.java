@@ -4,22 +4,24 @@ package com.project.back_end.services;
   INSTRUCTIONS (kept as requested):
   1. Mark as @Service; inject PatientRepository, AppointmentRepository, TokenService via constructor.
   2. createPatient: persist patient and return status code (1 success, 0 error).
-  3. getPatientAppointment/filterByCondition/filterByDoctor/filterByDoctorAndCondition: read-only queries returning AppointmentDTOs.
-  4. getPatientDetails: extract email from token and fetch patient.
+  3. getPatientAppointment/filterByCondition/filterByDoctor/filterByDoctorAndCondition: read-only keyset-paginated
+     queries returning pages of AppointmentDTOs ordered by (appointmentTime, id).
+  4. getPatientDetails: extract email from token and fetch patient as a PatientDTO.
   5. getPatientAppointmentsInternal: helper that chooses the proper filter combination.
-  6. Use DTOs to shape response and avoid exposing sensitive data.
+  6. Use DTOs to shape response and avoid exposing sensitive data; repository queries project straight into AppointmentDTO.
 */
 
-import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
+import com.project.back_end.DTO.AppointmentPageDTO;
+import com.project.back_end.DTO.PatientDTO;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.stream.Collectors;
 
+@Timed("clinic.service")
 @org.springframework.stereotype.Service
 public class PatientService {
 
@@ -45,59 +47,60 @@ public class PatientService {
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getPatientAppointment(Long patientId) {
-        var list = appointmentRepository.findByPatientId(patientId);
-        return toDTOs(list);
+    public AppointmentPageDTO getPatientAppointment(Long patientId, String cursor, int size) {
+        var after = AppointmentPageDTO.decodeCursor(cursor);
+        var rows = appointmentRepository.findDTOsByPatientId(patientId,
+                after.getAppointmentTime(), after.getId(), limit(size));
+        return AppointmentPageDTO.of(rows, size);
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> filterByCondition(Long patientId, String condition) {
+    public AppointmentPageDTO filterByCondition(Long patientId, String condition, String cursor, int size) {
         int status = "past".equalsIgnoreCase(condition) ? 1 : 0;
-        var list = appointmentRepository.findByPatientIdAndStatusOrderByAppointmentTimeAsc(patientId, status);
-        return toDTOs(list);
+        var after = AppointmentPageDTO.decodeCursor(cursor);
+        var rows = appointmentRepository.findDTOsByPatientIdAndStatus(patientId, status,
+                after.getAppointmentTime(), after.getId(), limit(size));
+        return AppointmentPageDTO.of(rows, size);
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> filterByDoctor(Long patientId, String doctorName) {
-        var list = appointmentRepository.findByDoctorNameContainingIgnoreCaseAndPatientId(doctorName, patientId);
-        return toDTOs(list);
+    public AppointmentPageDTO filterByDoctor(Long patientId, String doctorName, String cursor, int size) {
+        var after = AppointmentPageDTO.decodeCursor(cursor);
+        var rows = appointmentRepository.findDTOsByPatientIdAndDoctorName(patientId, doctorName,
+                after.getAppointmentTime(), after.getId(), limit(size));
+        return AppointmentPageDTO.of(rows, size);
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> filterByDoctorAndCondition(Long patientId, String doctorName, String condition) {
+    public AppointmentPageDTO filterByDoctorAndCondition(Long patientId, String doctorName, String condition,
+                                                         String cursor, int size) {
         int status = "past".equalsIgnoreCase(condition) ? 1 : 0;
-        var list = appointmentRepository.findByDoctorNameContainingIgnoreCaseAndPatientIdAndStatus(doctorName, patientId, status);
-        return toDTOs(list);
+        var after = AppointmentPageDTO.decodeCursor(cursor);
+        var rows = appointmentRepository.findDTOsByPatientIdAndDoctorNameAndStatus(patientId, doctorName, status,
+                after.getAppointmentTime(), after.getId(), limit(size));
+        return AppointmentPageDTO.of(rows, size);
     }
 
-    public Patient getPatientDetails(String token) {
+    private static Limit limit(int size) {
+        return Limit.of(size + 1);
+    }
+
+    @Transactional(readOnly = true)
+    public PatientDTO getPatientDetails(String token) {
         String email = tokenService.extractEmail(token);
-        return patientRepository.findByEmail(email);
+        Patient patient = patientRepository.findByEmail(email);
+        return patient == null ? null : PatientDTO.of(patient);
     }
 
     // Helper used by shared Service.filterPatient
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> getPatientAppointmentsInternal(Long patientId, String condition, String doctorName) {
+    public AppointmentPageDTO getPatientAppointmentsInternal(Long patientId, String condition, String doctorName,
+                                                             String cursor, int size) {
         boolean hasCond = condition != null && !condition.isBlank();
         boolean hasDoc = doctorName != null && !doctorName.isBlank();
-        if (hasCond && hasDoc) return filterByDoctorAndCondition(patientId, doctorName, condition);
-        if (hasCond) return filterByCondition(patientId, condition);
-        if (hasDoc) return filterByDoctor(patientId, doctorName);
-        return getPatientAppointment(patientId);
-    }
-
-    private List<AppointmentDTO> toDTOs(List<Appointment> list) {
-        return list.stream().map(a -> new AppointmentDTO(
-                a.getId(),
-                a.getDoctor().getId(),
-                a.getDoctor().getName(),
-                a.getPatient().getId(),
-                a.getPatient().getName(),
-                a.getPatient().getEmail(),
-                a.getPatient().getPhone(),
-                a.getPatient().getAddress(),
-                a.getAppointmentTime(),
-                a.getStatus()
-        )).collect(Collectors.toList());
+        if (hasCond && hasDoc) return filterByDoctorAndCondition(patientId, doctorName, condition, cursor, size);
+        if (hasCond) return filterByCondition(patientId, condition, cursor, size);
+        if (hasDoc) return filterByDoctor(patientId, doctorName, cursor, size);
+        return getPatientAppointment(patientId, cursor, size);
     }
 }
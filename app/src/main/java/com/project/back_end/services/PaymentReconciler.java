@@ -0,0 +1,157 @@
+package com.project.back_end.services;
+
+/*
+  Chunked, restartable settlement of WAIT payments.
+  1. Payments are read in keyset chunks (status = WAIT and id > last id, ordered by id) as projections,
+     so memory holds one chunk whatever the table size.
+  2. In each chunk, payments whose appointment is completed are set to PAID one statement at a time
+     (update ... where id = ? and status = WAIT); the others stay WAIT and are skipped. Only rows this run
+     actually changed (update count 1) are counted and logged; a rewritten JDBC batch would report
+     SUCCESS_NO_INFO and could not tell them apart from rows another reconciler already settled.
+  3. Every chunk commits on its own, together with the run's checkpoint (ReconciliationRun.lastPaymentId).
+     A run that stops for any reason is left RUNNING and the next run resumes after the last committed chunk.
+  4. Settled payments are recorded as PAYMENT patient log events once their chunk commits.
+  5. Runs on the configured cron (month start by default) or on demand, both on the task executor. One run
+     at a time per instance: start() claims the run before handing it over, so concurrent starts cannot both
+     succeed. The checkpoint's version stops two instances from applying the same chunk.
+*/
+
+import com.project.back_end.DTO.PaymentRow;
+import com.project.back_end.models.Payment;
+import com.project.back_end.models.PatientLog;
+import com.project.back_end.models.ReconciliationRun;
+import com.project.back_end.repo.PaymentRepository;
+import com.project.back_end.repo.ReconciliationRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class PaymentReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciler.class);
+
+    private static final int COMPLETED = 1;
+    private static final String SETTLE_SQL = "update payment set status = ? where id = ? and status = ?";
+
+    private final PaymentRepository paymentRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientLogWriter patientLogWriter;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+    private final Counter settledPayments;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PaymentReconciler(PaymentRepository paymentRepository,
+                             ReconciliationRunRepository runRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             PatientLogWriter patientLogWriter,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${clinic.payments.reconcile-chunk-size:500}") int chunkSize) {
+        this.paymentRepository = paymentRepository;
+        this.runRepository = runRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.patientLogWriter = patientLogWriter;
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.settledPayments = Counter.builder("clinic.payments.settled").register(meterRegistry);
+    }
+
+    // Starts a run in the background; false when one is already running here
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+        try {
+            taskExecutor.execute(this::reconcile);
+            return true;
+        } catch (Exception e) {
+            // Executor saturated or shutting down
+            running.set(false);
+            return false;
+        }
+    }
+
+    @Scheduled(cron = "${clinic.payments.reconcile-cron:-}")
+    public void scheduledRun() {
+        if (!start()) log.info("Scheduled payment reconciliation skipped; a run is already in progress");
+    }
+
+    // Runs (or resumes) reconciliation to the end on the calling thread; returns the finished run, or null if
+    // it could not finish or another run is in progress
+    public ReconciliationRun run() {
+        if (!running.compareAndSet(false, true)) return null;
+        return reconcile();
+    }
+
+    // The caller has claimed the running flag; it is released here
+    private ReconciliationRun reconcile() {
+        try {
+            Long runId = transactionTemplate.execute(s -> runRepository.findFirstByStatusOrderByIdDesc(ReconciliationRun.RUNNING)
+                    .orElseGet(() -> runRepository.save(new ReconciliationRun(LocalDateTime.now()))).getId());
+            while (Boolean.TRUE.equals(transactionTemplate.execute(s -> applyChunk(runId)))) {
+                // one committed chunk per iteration
+            }
+            ReconciliationRun run = runRepository.findById(runId).orElseThrow();
+            log.info("Payment reconciliation run {} finished: {} scanned, {} settled in {} chunks",
+                    run.getId(), run.getScanned(), run.getSettled(), run.getChunks());
+            return run;
+        } catch (Exception e) {
+            log.warn("Payment reconciliation stopped; the next run resumes after the last committed chunk", e);
+            return null;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Returns true while there may be more to do
+    private boolean applyChunk(Long runId) {
+        ReconciliationRun run = runRepository.findById(runId).orElseThrow();
+        List<PaymentRow> rows = paymentRepository.findChunk(Payment.WAIT, run.getLastPaymentId(), Limit.of(chunkSize));
+        if (rows.isEmpty()) {
+            run.complete(LocalDateTime.now());
+            return false;
+        }
+        List<PaymentRow> due = new ArrayList<>();
+        for (PaymentRow row : rows) {
+            if (row.appointmentStatus() == COMPLETED) due.add(row);
+        }
+        List<PaymentRow> settled = new ArrayList<>(due.size());
+        for (PaymentRow row : due) {
+            if (jdbcTemplate.update(SETTLE_SQL, Payment.PAID, row.id(), Payment.WAIT) > 0) settled.add(row);
+        }
+        run.advance(rows.get(rows.size() - 1).id(), rows.size(), settled.size());
+        // A chunk that rolls back is applied again on resume, so nothing is logged or counted before the commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                settledPayments.increment(settled.size());
+                for (PaymentRow row : settled) {
+                    patientLogWriter.record(PatientLog.PAYMENT, row.patientId(), row.doctorId(), row.appointmentId());
+                }
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,66 @@
+package com.project.back_end.services;
+
+/*
+  Payments for appointments.
+  1. createPayment: a patient opens a WAIT payment for one of their appointments (one payment per appointment).
+     Return codes: 1 created, 0 error, -1 appointment not found or not the patient's, -3 already has a payment.
+  2. Settlement of WAIT payments is done in bulk by PaymentReconciler; startReconciliation/latestRun expose it.
+*/
+
+import com.project.back_end.DTO.ReconciliationStatusDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Payment;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PaymentRepository;
+import com.project.back_end.repo.ReconciliationRunRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+@Timed("clinic.service")
+@org.springframework.stereotype.Service
+public class PaymentService {
+
+    private final PaymentRepository paymentRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final PaymentReconciler paymentReconciler;
+
+    public PaymentService(PaymentRepository paymentRepository,
+                          AppointmentRepository appointmentRepository,
+                          ReconciliationRunRepository runRepository,
+                          PaymentReconciler paymentReconciler) {
+        this.paymentRepository = paymentRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.runRepository = runRepository;
+        this.paymentReconciler = paymentReconciler;
+    }
+
+    @Transactional
+    public int createPayment(Long patientId, Long appointmentId, int amount) {
+        try {
+            Appointment appointment = appointmentRepository.findById(appointmentId).orElse(null);
+            if (appointment == null || !Objects.equals(appointment.getPatient().getId(), patientId)) return -1;
+            if (paymentRepository.existsByAppointmentId(appointmentId)) return -3;
+            Payment payment = new Payment();
+            payment.setAmount(amount);
+            payment.setStatus(Payment.WAIT);
+            payment.setAppointment(appointment);
+            paymentRepository.save(payment);
+            return 1;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    // False when a run is already in progress on this instance
+    public boolean startReconciliation() {
+        return paymentReconciler.start();
+    }
+
+    @Transactional(readOnly = true)
+    public ReconciliationStatusDTO latestRun() {
+        return runRepository.findFirstByOrderByIdDesc().map(ReconciliationStatusDTO::of).orElse(null);
+    }
+}
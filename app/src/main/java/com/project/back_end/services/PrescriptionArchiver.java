@@ -0,0 +1,113 @@
+package com.project.back_end.services;
+
+/*
+  Background move of archived appointments' prescriptions out of the live collection.
+  1. DoctorService.deleteDoctor archives appointments with prescriptionsPending = true and wakes this job;
+     a fixed-delay run picks up anything a crash or restart left behind.
+  2. Works in batches of appointment ids (ordered by id): one $merge aggregation copies the batch's prescriptions
+     into prescriptions_archive, keyed by _id, then one deleteMany removes them from prescriptions.
+  3. The batch's pending flags are cleared only after both steps, and $merge replaces on _id, so repeating
+     a batch after a failure is harmless.
+  4. One run at a time per instance; moved prescriptions are dropped from PrescriptionService's cache.
+*/
+
+import com.mongodb.client.result.DeleteResult;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+public class PrescriptionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionArchiver.class);
+
+    static final String ARCHIVE_COLLECTION = "prescriptions_archive";
+
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PrescriptionService prescriptionService;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+    private final Counter archivedPrescriptions;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PrescriptionArchiver(ArchivedAppointmentRepository archiveRepository,
+                                MongoTemplate mongoTemplate,
+                                PrescriptionService prescriptionService,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${clinic.prescription-archive.batch-size:500}") int batchSize) {
+        this.archiveRepository = archiveRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.prescriptionService = prescriptionService;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = Math.max(1, batchSize);
+        this.archivedPrescriptions = Counter.builder("clinic.prescriptions.archived").register(meterRegistry);
+    }
+
+    // Runs in the background; a wake-up while a run is in progress is covered by that run's next batch
+    public void wake() {
+        if (lock.isLocked()) return;
+        try {
+            taskExecutor.execute(this::run);
+        } catch (Exception e) {
+            log.debug("Prescription archiving not started; the scheduled run will pick it up", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.prescription-archive.interval-ms:300000}")
+    public void scheduledRun() {
+        run();
+    }
+
+    // Returns the number of appointments handled, or -1 if another run holds the lock
+    public int run() {
+        if (!lock.tryLock()) return -1;
+        int handled = 0;
+        try {
+            List<Long> ids;
+            while (!(ids = archiveRepository.findPrescriptionsPending(Limit.of(batchSize))).isEmpty()) {
+                archiveBatch(ids);
+                archiveRepository.markPrescriptionsArchived(ids);
+                handled += ids.size();
+            }
+        } catch (Exception e) {
+            log.warn("Prescription archiving stopped after {} appointments; the next run retries the rest", handled, e);
+        } finally {
+            lock.unlock();
+        }
+        return handled;
+    }
+
+    private void archiveBatch(List<Long> appointmentIds) {
+        MergeOperation merge = Aggregation.merge().intoCollection(ARCHIVE_COLLECTION).on("_id")
+                .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build();
+        mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.match(where("appointmentId").in(appointmentIds)), merge), Prescription.class, Document.class);
+        DeleteResult removed = mongoTemplate.remove(Query.query(where("appointmentId").in(appointmentIds)), Prescription.class);
+        prescriptionService.invalidate(appointmentIds);
+        archivedPrescriptions.increment(removed.getDeletedCount());
+    }
+}
@@ -2,40 +2,90 @@ package com.project.back_end.services;
 
 /*
   INSTRUCTIONS (kept as requested):
-  1. Mark as @Service; inject PrescriptionRepository via constructor.
-  2. savePrescription: prevent duplicate prescriptions per appointment; save and return 201, otherwise 400/500.
-  3. getPrescription: fetch by appointmentId; return 200 with doc or 404/500 with message.
+  1. Mark as @Service; inject PrescriptionRepository and AppointmentCompletionOutbox via constructor.
+  2. savePrescription: one insert guarded by the unique appointmentId index; a duplicate key means the appointment
+     already has a prescription (400). The insert also carries the outbox marker that completes the appointment.
+  3. getPrescription: fetch by appointmentId through a read-through cache; return 200 with doc or 404/500 with message.
+  4. The cache is bounded by size and time. "Not found" is cached too, with a much shorter lifetime, because the
+     add-prescription page polls for it. savePrescription invalidates the appointment's entry after the insert.
 */
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.repo.PrescriptionRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Timed("clinic.service")
 @org.springframework.stereotype.Service
 public class PrescriptionService {
 
+    // Cached in place of a missing prescription; never returned to callers
+    private static final Prescription NOT_FOUND = new Prescription();
+
     private final PrescriptionRepository prescriptionRepository;
+    private final AppointmentCompletionOutbox completionOutbox;
+    private final Cache<Long, Prescription> cache;
 
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               AppointmentCompletionOutbox completionOutbox,
+                               MeterRegistry meterRegistry,
+                               @Value("${clinic.prescription-cache.max-size:10000}") long maxSize,
+                               @Value("${clinic.prescription-cache.ttl:PT10M}") Duration ttl,
+                               @Value("${clinic.prescription-cache.negative-ttl:PT5S}") Duration negativeTtl) {
         this.prescriptionRepository = prescriptionRepository;
+        this.completionOutbox = completionOutbox;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Prescription>() {
+                    @Override
+                    public long expireAfterCreate(Long key, Prescription value, long currentTime) {
+                        return (value == NOT_FOUND ? negativeTtl : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, Prescription value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, Prescription value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, evictions and size under cache="prescriptions"
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "prescriptions");
     }
 
     public ResponseEntity<Map<String, Object>> savePrescription(Prescription prescription) {
         Map<String, Object> res = new HashMap<>();
         try {
-            List<Prescription> existing = prescriptionRepository.findByAppointmentId(prescription.getAppointmentId());
-            if (!existing.isEmpty()) {
-                res.put("message", "Prescription already exists for this appointment");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
-            }
-            prescriptionRepository.save(prescription);
+            prescription.setId(null);
+            prescription.setStatusPending(true);
+            prescriptionRepository.insert(prescription);
+            // After the insert: a load that read "not found" before it finishes before this removal
+            cache.invalidate(prescription.getAppointmentId());
+            completionOutbox.wake();
             res.put("message", "Prescription saved successfully");
             return ResponseEntity.status(HttpStatus.CREATED).body(res);
+        } catch (DuplicateKeyException e) {
+            res.put("message", "Prescription already exists for this appointment");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
         } catch (Exception e) {
             res.put("message", "Internal error while saving prescription");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
@@ -44,17 +94,27 @@ public class PrescriptionService {
 
     public ResponseEntity<?> getPrescription(Long appointmentId) {
         try {
-            List<Prescription> list = prescriptionRepository.findByAppointmentId(appointmentId);
-            if (list.isEmpty()) {
+            Prescription prescription = appointmentId == null ? NOT_FOUND : cache.get(appointmentId, this::load);
+            if (prescription == NOT_FOUND) {
                 Map<String, Object> res = new HashMap<>();
                 res.put("message", "Prescription not found");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(res);
             }
-            return ResponseEntity.ok(list.get(0));
+            return ResponseEntity.ok(prescription);
         } catch (Exception e) {
             Map<String, Object> res = new HashMap<>();
             res.put("message", "Internal error while fetching prescription");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res);
         }
     }
+
+    // Drops cached prescriptions that were moved out of the collection (PrescriptionArchiver)
+    public void invalidate(Collection<Long> appointmentIds) {
+        cache.invalidateAll(appointmentIds);
+    }
+
+    private Prescription load(Long appointmentId) {
+        List<Prescription> list = prescriptionRepository.findByAppointmentId(appointmentId);
+        return list.isEmpty() ? NOT_FOUND : list.get(0);
+    }
 }
@@ -5,31 +5,37 @@ package com.project.back_end.services;
   1. Mark as @Service and use constructor injection for TokenService, Repositories, and other Services.
   2. validateToken: delegate to TokenService for role-based validation.
   3. validateAdmin: verify credentials; on success generate token; return appropriate HTTP codes.
-  4. filterDoctor: support flexible filters (name, time, speciality) delegating to DoctorService for time logic.
+  4. filterDoctor: support flexible filters (name, time, speciality) answered by DoctorSearchIndex;
+     each result carries the doctor's rating from DoctorRatingService.
   5. validateAppointment: ensure doctor exists and chosen time is available.
   6. validatePatient: ensure uniqueness by email/phone.
   7. validatePatientLogin: validate credentials and return token.
-  8. filterPatient: extract patient from token and return filtered appointments via PatientService.
+  8. filterPatient: extract patient from token and return one page of filtered appointments via PatientService.
 */
 
+import com.project.back_end.DTO.DoctorSummary;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin;
-import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+@Timed("clinic.service")
 @org.springframework.stereotype.Service
 public class Service {
 
@@ -40,6 +46,9 @@ public class Service {
         private final AppointmentRepository appointmentRepository;
         private final DoctorService doctorService;
         private final PatientService patientService;
+        private final DoctorSearchIndex doctorSearchIndex;
+        private final DoctorRatingService doctorRatingService;
+        private final Counter precheckConflicts;
 
         public Service(TokenService tokenService,
                        AdminRepository adminRepository,
@@ -47,7 +56,10 @@ public class Service {
                        PatientRepository patientRepository,
                        AppointmentRepository appointmentRepository,
                        DoctorService doctorService,
-                       PatientService patientService) {
+                       PatientService patientService,
+                       DoctorSearchIndex doctorSearchIndex,
+                       DoctorRatingService doctorRatingService,
+                       MeterRegistry meterRegistry) {
                 this.tokenService = tokenService;
                 this.adminRepository = adminRepository;
                 this.doctorRepository = doctorRepository;
@@ -55,6 +67,10 @@ public class Service {
                 this.appointmentRepository = appointmentRepository;
                 this.doctorService = doctorService;
                 this.patientService = patientService;
+                this.doctorSearchIndex = doctorSearchIndex;
+                this.doctorRatingService = doctorRatingService;
+                this.precheckConflicts = Counter.builder("clinic.appointments.slot.conflicts")
+                        .tag("stage", "precheck").register(meterRegistry);
         }
 
         public boolean validateToken(String token, String role) {
@@ -77,7 +93,7 @@ public class Service {
                                 res.put("message", "Invalid credentials");
                                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
                         }
-                        String token = tokenService.generateToken(saved.getUsername());
+                        String token = tokenService.generateToken(saved.getUsername(), "admin", saved.getId());
                         res.put("token", token);
                         res.put("message", "Login successful");
                         return ResponseEntity.ok(res);
@@ -87,7 +103,7 @@ public class Service {
                 }
         }
 
-        // name/time/speciality filter - delegates time filtering to DoctorService
+        // name/time/speciality filter - any combination is answered by the in-memory DoctorSearchIndex
         public Map<String, Object> filterDoctor(String name, String time, String speciality) {
                 Map<String, Object> res = new HashMap<>();
                 // Normalize inputs: treat literal "null"/"undefined" and blanks as empty
@@ -95,28 +111,10 @@ public class Service {
                 time = normalizeFilterValue(time);
                 speciality = normalizeFilterValue(speciality);
 
-                List<Doctor> doctors;
-                boolean hasName = name != null && !name.isBlank();
-                boolean hasSpec = speciality != null && !speciality.isBlank();
-                boolean hasTime = time != null && !time.isBlank();
-
-                if (!hasName && !hasSpec && !hasTime) {
-                        doctors = doctorRepository.findAll();
-                } else if (hasName && hasSpec && hasTime) {
-                        doctors = doctorService.filterDoctorsByNameSpecilityandTime(name, speciality, time);
-                } else if (hasName && hasSpec) {
-                        doctors = doctorService.filterDoctorByNameAndSpecility(name, speciality);
-                } else if (hasName && hasTime) {
-                        doctors = doctorService.filterDoctorByNameAndTime(name, time);
-                } else if (hasSpec && hasTime) {
-                        doctors = doctorService.filterDoctorByTimeAndSpecility(speciality, time);
-                } else if (hasName) {
-                        doctors = doctorService.findDoctorByName(name);
-                } else if (hasSpec) {
-                        doctors = doctorService.filterDoctorBySpecility(speciality);
-                } else { // only time
-                        doctors = doctorService.filterDoctorsByTime(time);
-                }
+                List<DoctorSummary> matches = doctorSearchIndex.search(name, speciality, time);
+                // Index entries are shared, so ratings go on copies
+                List<DoctorSummary> doctors = new ArrayList<>(matches.size());
+                for (DoctorSummary d : matches) doctors.add(d.withRating(doctorRatingService.rating(d.getId())));
                 res.put("doctors", doctors);
                 return res;
         }
@@ -131,11 +129,9 @@ public class Service {
 
         // Returns: 1 valid, 0 invalid time, -1 doctor not found
         public int validateAppointment(Long doctorId, LocalDate date, LocalTime time) {
-                var doctorOpt = doctorRepository.findById(doctorId);
-                if (doctorOpt.isEmpty()) return -1;
-                var available = doctorService.getDoctorAvailabilitySlots(doctorId, date);
-                boolean ok = available.stream().anyMatch(t -> t.equals(time));
-                return ok ? 1 : 0;
+                int result = doctorService.checkSlot(doctorId, date, time);
+                if (result == 0) precheckConflicts.increment();
+                return result;
         }
 
         public boolean validatePatient(Patient patient) {
@@ -155,7 +151,7 @@ public class Service {
                                 res.put("message", "Invalid credentials");
                                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(res);
                         }
-                        String token = tokenService.generateToken(patient.getEmail());
+                        String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
                         res.put("token", token);
                         res.put("message", "Login successful");
                         return ResponseEntity.ok(res);
@@ -165,21 +161,25 @@ public class Service {
                 }
         }
 
-        public Map<String, Object> filterPatient(String condition, String doctorName, String token) {
+        public Map<String, Object> filterPatient(String condition, String doctorName, String token, String cursor, int size) {
                 Map<String, Object> res = new HashMap<>();
                 if (!validateToken(token, "patient")) {
                         res.put("message", "Invalid token");
                         res.put("appointments", List.of());
                         return res;
                 }
-                String email = tokenService.extractEmail(token);
-                var patient = patientRepository.findByEmail(email);
-                if (patient == null) {
-                        res.put("appointments", List.of());
-                        return res;
+                Long patientId = tokenService.extractPrincipalId(token);
+                if (patientId == null) {
+                        var patient = patientRepository.findByEmail(tokenService.extractEmail(token));
+                        if (patient == null) {
+                                res.put("appointments", List.of());
+                                return res;
+                        }
+                        patientId = patient.getId();
                 }
-                var list = patientService.getPatientAppointmentsInternal(patient.getId(), condition, doctorName);
-                res.put("appointments", list);
+                var page = patientService.getPatientAppointmentsInternal(patientId, condition, doctorName, cursor, size);
+                res.put("appointments", page.getAppointments());
+                res.put("nextCursor", page.getNextCursor());
                 return res;
         }
 }
@@ -0,0 +1,120 @@
+package com.project.back_end.services;
+
+/*
+  A doctor's schedule compiled into slot bitmaps (bit = minute of day a slot starts at, so always sorted).
+  1. Built from availableTimes plus the optional ScheduleTemplate: one bitmap per weekday and one per date exception.
+  2. Compiled once per distinct (availableTimes, template) pair and shared: doctors with the same schedule get
+     the same instance, and it lives as long as some index entry still uses it.
+  3. Immutable: the arrays handed out are shared by every request and must be cloned before being changed.
+*/
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.models.ScheduleTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class SlotTemplate {
+
+    static final int DEFAULT_SLOT_MINUTES = 60;
+    private static final int WORDS = (AvailabilityIndex.MINUTES_PER_DAY + 63) / 64;
+
+    private static final Cache<Key, SlotTemplate> COMPILED = Caffeine.newBuilder().weakValues().build();
+
+    private final long[][] weekdays = new long[7][];
+    private final Map<LocalDate, long[]> exceptions;
+
+    private SlotTemplate(List<Schedule> hours, ScheduleTemplate template) {
+        int step = template == null || template.slotMinutes() == null ? DEFAULT_SLOT_MINUTES : template.slotMinutes();
+        List<Schedule> breaks = template == null || template.breaks() == null ? List.of() : template.breaks();
+        long[] base = bitmap(hours, step, breaks);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            List<Schedule> ranges = template == null || template.weekdays() == null ? null : template.weekdays().get(day);
+            long[] bits = ranges == null ? base : bitmap(ranges, step, breaks);
+            // Identical days share one array
+            for (int d = 0; d < day.ordinal(); d++) {
+                if (Arrays.equals(weekdays[d], bits)) bits = weekdays[d];
+            }
+            weekdays[day.ordinal()] = bits;
+        }
+        Map<LocalDate, long[]> dates = new HashMap<>();
+        if (template != null && template.exceptions() != null) {
+            template.exceptions().forEach((date, ranges) -> dates.put(date, bitmap(ranges, step, breaks)));
+        }
+        this.exceptions = Map.copyOf(dates);
+    }
+
+    static SlotTemplate of(Doctor doctor) {
+        List<Schedule> hours = new ArrayList<>();
+        if (doctor.getAvailableTimes() != null) {
+            for (Schedule s : doctor.getAvailableTimes()) {
+                if (s == null) continue;
+                Schedule copy = new Schedule();
+                copy.setStartTime(s.getStartTime());
+                copy.setEndTime(s.getEndTime());
+                hours.add(copy);
+            }
+        }
+        Key key = new Key(hours, doctor.getScheduleTemplate());
+        return COMPILED.get(key, k -> new SlotTemplate(k.hours(), k.template()));
+    }
+
+    // Slot starts offered on a date; shared, never modify
+    long[] slotsOn(LocalDate date) {
+        long[] exception = exceptions.get(date);
+        return exception != null ? exception : weekdays[date.getDayOfWeek().ordinal()];
+    }
+
+    // Every slot start offered on at least one day of [from, to]
+    long[] union(LocalDate from, LocalDate to) {
+        long[] bits = new long[WORDS];
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            long[] day = slotsOn(d);
+            for (int w = 0; w < WORDS; w++) bits[w] |= day[w];
+        }
+        return bits;
+    }
+
+    // Slots start every step minutes from each range start while the start is inside the range,
+    // and are dropped when they overlap a break
+    private static long[] bitmap(List<Schedule> ranges, int step, List<Schedule> breaks) {
+        long[] bits = new long[WORDS];
+        if (ranges == null) return bits;
+        for (Schedule s : ranges) {
+            if (!usable(s) || s.getStartTime().getSecond() != 0 || s.getStartTime().getNano() != 0) continue;
+            int end = endMinute(s.getEndTime());
+            for (int m = AvailabilityIndex.minuteOf(s.getStartTime()); m < end; m += step) {
+                if (!overlapsBreak(m, m + step, breaks)) bits[m >>> 6] |= 1L << m;
+            }
+        }
+        return bits;
+    }
+
+    private static boolean overlapsBreak(int start, int end, List<Schedule> breaks) {
+        for (Schedule b : breaks) {
+            if (!usable(b)) continue;
+            if (start < endMinute(b.getEndTime()) && end > AvailabilityIndex.minuteOf(b.getStartTime())) return true;
+        }
+        return false;
+    }
+
+    private static boolean usable(Schedule s) {
+        return s != null && s.getStartTime() != null && s.getEndTime() != null;
+    }
+
+    private static int endMinute(LocalTime end) {
+        return AvailabilityIndex.minuteOf(end) + (end.getSecond() > 0 || end.getNano() > 0 ? 1 : 0);
+    }
+
+    private record Key(List<Schedule> hours, ScheduleTemplate template) {
+    }
+}
@@ -1,19 +1,42 @@
 package com.project.back_end.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Timed("clinic.service")
 @Component
 public class TokenService {
 
@@ -21,62 +44,240 @@ public class TokenService {
         private final DoctorRepository doctorRepository;
         private final PatientRepository patientRepository;
 
-        private final String jwtSecret;
+        private static final String ROLE_CLAIM = "role";
+        private static final String PRINCIPAL_CLAIM = "pid";
+        private static final String EPOCH_CLAIM = "epoch";
+
+        // Upper bound on remembered tokens; Caffeine evicts the least useful entries beyond it
+        private static final int MAX_VERIFIED_TOKENS = 10_000;
+
+        private final SecretKey signingKey;
+        private final JwtParser parser;
+
+        // Tokens whose signature and expiry were already checked, keyed by SHA-256 of the token.
+        // Each entry expires together with its token's exp claim.
+        private final Cache<String, VerifiedToken> verifiedTokens;
+        private final AtomicLong cacheHits = new AtomicLong();
+        private final AtomicLong cacheMisses = new AtomicLong();
+
+        // Epoch of a principal that no longer exists; never matches a token
+        private static final int MISSING = -1;
+
+        // Per-principal token epoch ("role:id" -> epoch), read through from the principal's token_epoch column.
+        // Bumping the column revokes older tokens; the local entry is dropped at once, and entries expire after
+        // epoch-ttl so revocations made by other instances are picked up too.
+        private final Cache<String, Integer> epochs;
+
+        private final MeterRegistry meterRegistry;
+        // Failed validations by reason, created on first use
+        private final Map<String, Counter> failures = new ConcurrentHashMap<>();
 
         public TokenService(AdminRepository adminRepository,
                             DoctorRepository doctorRepository,
                             PatientRepository patientRepository,
-                            @Value("${jwt.secret}") String jwtSecret) {
+                            @Value("${jwt.secret}") String jwtSecret,
+                            @Value("${clinic.tokens.epoch-ttl:PT1M}") Duration epochTtl,
+                            MeterRegistry meterRegistry) {
                 this.adminRepository = adminRepository;
                 this.doctorRepository = doctorRepository;
                 this.patientRepository = patientRepository;
-                this.jwtSecret = jwtSecret;
-        }
-
-        private SecretKey getSigningKey() {
                 // Ensure key size is adequate for HMAC-SHA algorithms
-                return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+                this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+                this.parser = Jwts.parser().verifyWith(signingKey).build();
+                this.epochs = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(epochTtl).build();
+                this.verifiedTokens = Caffeine.newBuilder()
+                        .maximumSize(MAX_VERIFIED_TOKENS)
+                        .expireAfter(new Expiry<String, VerifiedToken>() {
+                                @Override
+                                public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                                        if (value.expiresAt == Long.MAX_VALUE) return Long.MAX_VALUE;
+                                        long remaining = value.expiresAt - System.currentTimeMillis();
+                                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                                }
+
+                                @Override
+                                public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                                        return expireAfterCreate(key, value, currentTime);
+                                }
+
+                                @Override
+                                public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                                        return currentDuration;
+                                }
+                        })
+                        .build();
+                this.meterRegistry = meterRegistry;
+                FunctionCounter.builder("clinic.tokens.cache", cacheHits, AtomicLong::get)
+                        .tag("result", "hit").register(meterRegistry);
+                FunctionCounter.builder("clinic.tokens.cache", cacheMisses, AtomicLong::get)
+                        .tag("result", "miss").register(meterRegistry);
         }
 
-        public String generateToken(String email) {
+        // Tokens carry the principal's role, id and current epoch; validation only reads the epoch, usually from cache
+        public String generateToken(String subject, String role, Long principalId) {
                 Instant now = Instant.now();
                 return Jwts.builder()
-                        .subject(email)
+                        .subject(subject)
+                        .claim(ROLE_CLAIM, role.toLowerCase())
+                        .claim(PRINCIPAL_CLAIM, principalId)
+                        .claim(EPOCH_CLAIM, Math.max(0, currentEpoch(role, principalId)))
                         .issuedAt(Date.from(now))
                         .expiration(Date.from(now.plus(7, ChronoUnit.DAYS)))
-                        .signWith(getSigningKey())
+                        .signWith(signingKey)
                         .compact();
         }
 
         public String extractEmail(String token) {
-                var claims = Jwts.parser()
-                        .verifyWith(getSigningKey())
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
-                return claims.getSubject();
+                return verify(token).subject;
+        }
+
+        // Principal id from the token, or null for tokens issued before ids were embedded
+        public Long extractPrincipalId(String token) {
+                return verify(token).principalId;
+        }
+
+        // Invalidates every token issued so far to this principal (password change, deletion). Joins the caller's
+        // transaction, so the revocation commits or rolls back with the change that caused it.
+        public void revokeTokens(String role, Long principalId) {
+                if (role == null || principalId == null) return;
+                String key = epochKey(role, principalId);
+                switch (role.toLowerCase()) {
+                        case "admin" -> adminRepository.bumpTokenEpoch(principalId);
+                        case "doctor" -> doctorRepository.bumpTokenEpoch(principalId);
+                        case "patient" -> patientRepository.bumpTokenEpoch(principalId);
+                        default -> {
+                                return;
+                        }
+                }
+                epochs.invalidate(key);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        // A validation between the bump and the commit may have reloaded the old epoch
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCompletion(int status) {
+                                        epochs.invalidate(key);
+                                }
+                        });
+                }
+        }
+
+        // The principal's stored epoch, or MISSING when it does not exist
+        private int currentEpoch(String role, Long principalId) {
+                if (principalId == null) return MISSING;
+                return epochs.get(epochKey(role, principalId), k -> {
+                        Integer epoch = switch (role.toLowerCase()) {
+                                case "admin" -> adminRepository.findTokenEpochById(principalId);
+                                case "doctor" -> doctorRepository.findTokenEpochById(principalId);
+                                case "patient" -> patientRepository.findTokenEpochById(principalId);
+                                default -> null;
+                        };
+                        return epoch == null ? MISSING : epoch;
+                });
+        }
+
+        private static String epochKey(String role, Long principalId) {
+                return role.toLowerCase() + ":" + principalId;
         }
 
         public boolean validateToken(String token, String role) {
-                if (token == null) return false;
+                if (token == null) return fail("missing");
                 try {
-                        String subject = extractEmail(token);
-                        if (subject == null || subject.isBlank()) return false;
+                        VerifiedToken verified = verify(token);
+                        String subject = verified.subject;
+                        if (subject == null || subject.isBlank()) return fail("no_subject");
+
+                        if (verified.role != null && verified.principalId != null) {
+                                if (!verified.role.equalsIgnoreCase(role)) return fail("role_mismatch");
+                                int epoch = currentEpoch(verified.role, verified.principalId);
+                                if (epoch == MISSING) return fail("unknown_principal");
+                                if (verified.epoch != epoch) return fail("revoked");
+                                return true;
+                        }
 
+                        // Tokens without role claims fall back to looking the subject up
+                        boolean known;
                         if ("admin".equalsIgnoreCase(role)) {
                                 // Admins are identified by username
-                                return adminRepository.findByUsername(subject) != null;
+                                known = adminRepository.findByUsername(subject) != null;
                         } else if ("doctor".equalsIgnoreCase(role)) {
-                                return doctorRepository.findByEmail(subject) != null;
+                                known = doctorRepository.findByEmail(subject) != null;
                         } else if ("patient".equalsIgnoreCase(role)) {
-                                return patientRepository.findByEmail(subject) != null;
+                                known = patientRepository.findByEmail(subject) != null;
                         } else {
-                                // Unknown role
-                                return false;
+                                return fail("unknown_role");
                         }
+                        return known || fail("unknown_principal");
+                } catch (ExpiredJwtException e) {
+                        return fail("expired");
+                } catch (SignatureException e) {
+                        return fail("bad_signature");
+                } catch (MalformedJwtException e) {
+                        return fail("malformed");
                 } catch (Exception e) {
-                        // Covers signature issues, token expiration, malformed token, etc.
-                        return false;
+                        // Remaining JWT errors (unsupported token, bad claims) and lookup failures
+                        return fail("invalid");
+                }
+        }
+
+        private boolean fail(String reason) {
+                failures.computeIfAbsent(reason, r -> Counter.builder("clinic.tokens.validation.failures")
+                        .tag("reason", r).register(meterRegistry)).increment();
+                return false;
+        }
+
+        public long getCacheHits() {
+                return cacheHits.get();
+        }
+
+        public long getCacheMisses() {
+                return cacheMisses.get();
+        }
+
+        // Returns the verified token, from cache when the same token was checked before and has not expired.
+        // Throws the usual JwtException subtypes when the token is invalid.
+        private VerifiedToken verify(String token) {
+                String key = digest(token);
+                VerifiedToken cached = verifiedTokens.getIfPresent(key);
+                if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                        cacheHits.incrementAndGet();
+                        return cached;
+                }
+                cacheMisses.incrementAndGet();
+                Claims claims = parser.parseSignedClaims(token).getPayload();
+                long expiresAt = claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime();
+                Number principalId = claims.get(PRINCIPAL_CLAIM, Number.class);
+                Number epoch = claims.get(EPOCH_CLAIM, Number.class);
+                VerifiedToken verified = new VerifiedToken(claims.getSubject(),
+                        claims.get(ROLE_CLAIM, String.class),
+                        principalId == null ? null : principalId.longValue(),
+                        epoch == null ? 0 : epoch.intValue(),
+                        expiresAt);
+                verifiedTokens.put(key, verified);
+                return verified;
+        }
+
+        private static String digest(String token) {
+                try {
+                        byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+                        return Base64.getEncoder().encodeToString(hash);
+                } catch (NoSuchAlgorithmException e) {
+                        throw new IllegalStateException("SHA-256 not available", e);
+                }
+        }
+
+        private static final class VerifiedToken {
+                private final String subject;
+                private final String role;
+                private final Long principalId;
+                private final int epoch;
+                private final long expiresAt;
+
+                private VerifiedToken(String subject, String role, Long principalId, int epoch, long expiresAt) {
+                        this.subject = subject;
+                        this.role = role;
+                        this.principalId = principalId;
+                        this.epoch = epoch;
+                        this.expiresAt = expiresAt;
                 }
         }
 }
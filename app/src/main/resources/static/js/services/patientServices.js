@@ -54,14 +54,32 @@ export async function getPatientData(token) {
   }
 }
 
+// Appointment lists are paginated by the backend; each request returns at most PAGE_SIZE rows plus a nextCursor
+const PAGE_SIZE = 50;
+
+// Follows nextCursor until the last page; resolves to { response, appointments } where response is the first failed (or last) one
+async function fetchAppointmentPages(url, options) {
+  let appointments = [];
+  let cursor = null;
+  let response;
+  do {
+    const params = new URLSearchParams({ size: PAGE_SIZE });
+    if (cursor) params.set("cursor", cursor);
+    response = await fetch(`${url}?${params}`, options);
+    if (!response.ok) return { response, appointments: [] };
+    const data = await response.json();
+    appointments = appointments.concat(data.appointments || []);
+    cursor = data.nextCursor;
+  } while (cursor);
+  return { response, appointments };
+}
+
 // the Backend API for fetching the patient record(visible in Doctor Dashboard) and Appointments (visible in Patient Dashboard) are same based on user(patient/doctor).
 export async function getPatientAppointments(id, token, user) {
   try {
-    const response = await fetch(`${PATIENT_API}/${id}/${user}/${token}`);
-    const data = await response.json();
-    console.log(data.appointments)
+    const { response, appointments } = await fetchAppointmentPages(`${PATIENT_API}/${id}/${user}/${token}`);
     if (response.ok) {
-      return data.appointments;
+      return appointments;
     }
     return null;
   }
@@ -73,7 +91,7 @@ export async function getPatientAppointments(id, token, user) {
 
 export async function filterAppointments(condition, name, token) {
   try {
-    const response = await fetch(`${PATIENT_API}/filter/${condition}/${name}/${token}`, {
+    const { response, appointments } = await fetchAppointmentPages(`${PATIENT_API}/filter/${condition}/${name}/${token}`, {
       method: "GET",
       headers: {
         "Content-Type": "application/json",
@@ -81,8 +99,7 @@ export async function filterAppointments(condition, name, token) {
     });
 
     if (response.ok) {
-      const data = await response.json();
-      return data;
+      return { appointments };
 
     } else {
       console.error("Failed to fetch doctors:", response.statusText);
@@ -0,0 +1,167 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.PatientLog;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SimpleMeterRegistry.class, AppointmentService.class, AvailabilityIndex.class, IdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBookingStressTest {
+
+    private static final int PATIENTS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private Service sharedService;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private PatientLogWriter patientLogWriter;
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBookingsOfOneSlotProduceExactlyOneAppointment() throws Exception {
+        Doctor doctor = doctorRepository.save(doctor());
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) patients.add(patientRepository.save(patient(i)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(PATIENTS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime slot = LocalDate.now().plusDays(1 + round).atTime(LocalTime.of(9, 0));
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (Patient p : patients) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return appointmentService.bookAppointment(appointment(doctor, p, slot));
+                    }));
+                }
+                start.countDown();
+
+                int booked = 0;
+                int conflicts = 0;
+                for (Future<Integer> r : results) {
+                    int code = r.get();
+                    if (code == 1) booked++;
+                    else if (code == -1) conflicts++;
+                }
+                assertEquals(1, booked, "exactly one booking must win the slot");
+                assertEquals(PATIENTS - 1, conflicts, "every loser must be reported as a slot conflict");
+                assertEquals(1, appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
+                        doctor.getId(), slot.minusMinutes(1), slot.plusMinutes(1)).size());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(ROUNDS, appointmentRepository.count());
+        // Only winning bookings are logged
+        verify(patientLogWriter, times(ROUNDS)).record(eq(PatientLog.CHECK_IN), any(), eq(doctor.getId()), notNull());
+    }
+
+    // The native INSERT bypasses @Future, so the service has to refuse past slots itself
+    @Test
+    void pastSlotsAreRejectedBeforeReserving() {
+        Doctor doctor = doctorRepository.save(doctor());
+        Patient patient = patientRepository.save(patient(0));
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(LocalTime.of(9, 0));
+
+        assertEquals(-2, appointmentService.bookAppointment(appointment(doctor, patient, yesterday)));
+        assertEquals(0, appointmentRepository.count());
+        verify(patientLogWriter, never()).record(any(), any(), any(), any());
+    }
+
+    private static Doctor doctor() {
+        Schedule morning = new Schedule();
+        morning.setStartTime(LocalTime.of(9, 0));
+        morning.setEndTime(LocalTime.of(12, 0));
+        Doctor d = new Doctor();
+        d.setName("Dr. Stress");
+        d.setSpecialty("Cardiologist");
+        d.setEmail("stress@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        d.setAvailableTimes(new ArrayList<>(List.of(morning)));
+        return d;
+    }
+
+    private static Patient patient(int i) {
+        Patient p = new Patient();
+        p.setName("Patient " + i);
+        p.setEmail("patient" + i + "@example.com");
+        p.setPassword("secret123");
+        p.setPhone(String.format("555%07d", i));
+        p.setAddress(i + " Main Street");
+        return p;
+    }
+
+    private static Appointment appointment(Doctor doctor, Patient patient, LocalDateTime time) {
+        Doctor d = new Doctor();
+        d.setId(doctor.getId());
+        Patient p = new Patient();
+        p.setId(patient.getId());
+        Appointment a = new Appointment();
+        a.setDoctor(d);
+        a.setPatient(p);
+        a.setAppointmentTime(time);
+        return a;
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.PatientLog;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Pending prescriptions complete their appointments and log CHECK OUT with the appointment's patient and doctor
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:completionoutbox;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AppointmentCompletionOutbox.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentCompletionOutboxTest {
+
+    @Autowired
+    private AppointmentCompletionOutbox outbox;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private MongoTemplate mongoTemplate;
+
+    @MockitoBean
+    private PatientLogWriter patientLogWriter;
+
+    @MockitoBean(name = "applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void checkOutCarriesPatientAndDoctor() {
+        Doctor doctor = doctorRepository.save(doctor());
+        Patient first = patientRepository.save(patient("one"));
+        Patient second = patientRepository.save(patient("two"));
+        Appointment a = appointmentRepository.save(appointment(doctor, first, 9));
+        Appointment b = appointmentRepository.save(appointment(doctor, second, 10));
+        when(mongoTemplate.find(any(Query.class), eq(Prescription.class)))
+                .thenReturn(List.of(prescription(a.getId()), prescription(b.getId())))
+                .thenReturn(List.of());
+
+        outbox.drain();
+
+        verify(patientLogWriter).record(PatientLog.CHECK_OUT, first.getId(), doctor.getId(), a.getId());
+        verify(patientLogWriter).record(PatientLog.CHECK_OUT, second.getId(), doctor.getId(), b.getId());
+        assertEquals(1, appointmentRepository.findById(a.getId()).orElseThrow().getStatus());
+        assertEquals(1, appointmentRepository.findById(b.getId()).orElseThrow().getStatus());
+    }
+
+    private static Prescription prescription(Long appointmentId) {
+        Prescription p = new Prescription();
+        p.setId(appointmentId.toString());
+        p.setAppointmentId(appointmentId);
+        return p;
+    }
+
+    private static Appointment appointment(Doctor doctor, Patient patient, int hour) {
+        Appointment a = new Appointment();
+        a.setDoctor(doctor);
+        a.setPatient(patient);
+        a.setAppointmentTime(LocalDate.now().plusDays(1).atTime(hour, 0));
+        return a;
+    }
+
+    private static Doctor doctor() {
+        Doctor d = new Doctor();
+        d.setName("Dr. Outbox");
+        d.setSpecialty("Cardiologist");
+        d.setEmail("outbox@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        d.setAvailableTimes(new ArrayList<>());
+        return d;
+    }
+
+    private static Patient patient(String name) {
+        Patient p = new Patient();
+        p.setName("Patient " + name);
+        p.setEmail(name + "@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5550002222");
+        p.setAddress("1 Main Street");
+        return p;
+    }
+}
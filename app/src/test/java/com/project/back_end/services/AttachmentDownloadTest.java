@@ -0,0 +1,160 @@
+package com.project.back_end.services;
+
+import com.jayway.jsonpath.JsonPath;
+import com.project.back_end.controllers.AttachmentController;
+import com.project.back_end.models.FileAttachment;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.FileAttachmentRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Uploads and byte-range downloads through the controller, on a real blob store in a temp directory
+class AttachmentDownloadTest {
+
+    private static final String BODY = "0123456789";
+
+    @TempDir
+    Path root;
+
+    private final Map<String, FileAttachment> documents = new HashMap<>();
+    private MockMvc mvc;
+    private String id;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileAttachmentRepository repository = mock(FileAttachmentRepository.class);
+        when(repository.insert(any(FileAttachment.class))).thenAnswer(inv -> {
+            FileAttachment a = inv.getArgument(0);
+            documents.put(a.getId(), a);
+            return a;
+        });
+        when(repository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(documents.get(inv.<String>getArgument(0))));
+        TokenService tokenService = mock(TokenService.class);
+        when(tokenService.extractPrincipalId(anyString())).thenReturn(1L);
+        Service sharedService = mock(Service.class);
+        when(sharedService.validateToken(anyString(), anyString())).thenReturn(true);
+
+        AttachmentService attachmentService = new AttachmentService(repository, new AttachmentStore(root), tokenService,
+                mock(DoctorRepository.class), mock(PatientRepository.class), DataSize.ofMegabytes(1));
+        mvc = MockMvcBuilders.standaloneSetup(new AttachmentController(attachmentService, sharedService))
+                .addPlaceholderValue("api.path", "/")
+                .build();
+
+        id = upload(BODY);
+        etag = "\"" + documents.get(id).getSha256() + "\"";
+    }
+
+    @Test
+    void fullBody() throws Exception {
+        mvc.perform(get(url()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void singleAndSuffixRanges() throws Exception {
+        mvc.perform(get(url()).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+        mvc.perform(get(url()).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+        // An end past the file is clamped to the last byte
+        mvc.perform(get(url()).header(HttpHeaders.RANGE, "bytes=8-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("89"));
+    }
+
+    @Test
+    void unsatisfiableRangeIs416() throws Exception {
+        mvc.perform(get(url()).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    // RFC 9110: a Range the server cannot or will not honour is ignored, not an error
+    @Test
+    void malformedMultipleAndStaleRangesGetTheWholeFile() throws Exception {
+        for (String range : new String[]{"bytes=abc", "items=0-1", "bytes=5-2", "bytes=0-1,4-5"}) {
+            mvc.perform(get(url()).header(HttpHeaders.RANGE, range))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(BODY));
+        }
+        mvc.perform(get(url()).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void matchingIfNoneMatchIs304() throws Exception {
+        mvc.perform(get(url()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mvc.perform(get(url()).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws Exception {
+        String second = upload(BODY);
+        assertNotEquals(id, second);
+        assertEquals(documents.get(id).getSha256(), documents.get(second).getSha256());
+        assertEquals(1, blobCount());
+
+        upload("something else");
+        assertEquals(2, blobCount());
+    }
+
+    private String url() {
+        return "/attachments/" + id + "/patient/token";
+    }
+
+    private String upload(String body) throws Exception {
+        String json = mvc.perform(post("/attachments/patient/token").param("fileName", "report.txt")
+                        .contentType(MediaType.TEXT_PLAIN).content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(json, "$.attachment.id");
+    }
+
+    private long blobCount() throws IOException {
+        try (Stream<Path> files = Files.walk(root.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.project.back_end.services;
+
+import com.project.back_end.controllers.DoctorController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The range endpoint caps the doctors per request whether they are listed by id or matched by speciality
+class AvailabilityRangeLimitTest {
+
+    private static final String URL = "/doctor/availability/range/patient/2026-03-02/2026-03-08/token";
+
+    private final DoctorService doctorService = mock(DoctorService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        Service sharedService = mock(Service.class);
+        when(sharedService.validateToken(anyString(), anyString())).thenReturn(true);
+        when(doctorService.getAvailabilityRange(any(), any(), any(), any())).thenReturn(List.of());
+        mvc = MockMvcBuilders.standaloneSetup(new DoctorController(doctorService, sharedService,
+                        mock(TokenService.class), mock(DoctorImportService.class)))
+                .addPlaceholderValue("api.path", "/")
+                .build();
+    }
+
+    @Test
+    void broadSpecialityIsRejected() throws Exception {
+        when(doctorService.countBySpeciality("Dentist")).thenReturn(101L);
+        mvc.perform(get(URL).param("speciality", "Dentist")).andExpect(status().isBadRequest());
+        verify(doctorService, never()).getAvailabilityRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void specialityWithinTheCapIsServed() throws Exception {
+        when(doctorService.countBySpeciality("Dentist")).thenReturn(100L);
+        mvc.perform(get(URL).param("speciality", "Dentist")).andExpect(status().isOk());
+    }
+}
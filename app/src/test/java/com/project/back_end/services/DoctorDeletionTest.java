@@ -0,0 +1,191 @@
+package com.project.back_end.services;
+
+import com.mongodb.client.result.DeleteResult;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Payment;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:doctordeletion;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "clinic.prescription-archive.batch-size=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SimpleMeterRegistry.class, DoctorService.class, PrescriptionArchiver.class, AvailabilityIndex.class,
+        DoctorSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DoctorDeletionTest {
+
+    private static final int APPOINTMENTS = 10;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PrescriptionArchiver prescriptionArchiver;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archiveRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private DoctorRatingService doctorRatingService;
+
+    @MockitoBean
+    private PrescriptionService prescriptionService;
+
+    @MockitoBean
+    private MongoTemplate mongoTemplate;
+
+    // Runs nothing: the test drives the archiver itself
+    @MockitoBean(name = "applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    private Doctor leaving;
+    private Doctor staying;
+    private Long paymentId;
+
+    @BeforeEach
+    void seed() {
+        leaving = doctorRepository.save(doctor("leaving"));
+        staying = doctorRepository.save(doctor("staying"));
+        Patient patient = patientRepository.save(patient());
+        LocalDate day = LocalDate.now().plusDays(1);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            appointments.add(appointment(leaving, patient, day.plusDays(i)));
+        }
+        appointments.add(appointment(staying, patient, day));
+        appointmentRepository.saveAll(appointments);
+        Payment payment = new Payment();
+        payment.setAmount(100);
+        payment.setAppointment(appointments.get(0));
+        paymentId = paymentRepository.save(payment).getId();
+        when(mongoTemplate.remove(any(Query.class), eq(Prescription.class))).thenReturn(DeleteResult.acknowledged(1));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        archiveRepository.deleteAllInBatch();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void archivesAppointmentsAndKeepsPayments() {
+        assertEquals(1, doctorService.deleteDoctor(leaving.getId()));
+
+        assertFalse(doctorRepository.existsById(leaving.getId()));
+        assertEquals(1, appointmentRepository.count());
+        List<ArchivedAppointment> archived = archiveRepository.findAll();
+        assertEquals(APPOINTMENTS, archived.size());
+        assertTrue(archived.stream().allMatch(a -> a.getDoctorId().equals(leaving.getId()) && a.isPrescriptionsPending()));
+        assertEquals(1, archived.stream().filter(a -> paymentId.equals(a.getPaymentId())).count());
+        assertNull(paymentRepository.findById(paymentId).orElseThrow().getAppointment());
+        verify(taskExecutor).execute(any());
+
+        assertEquals(-1, doctorService.deleteDoctor(leaving.getId()));
+    }
+
+    // Ten archived appointments in batches of four: three merges and deletes, then nothing left pending
+    @Test
+    void movesPrescriptionsInBatches() {
+        doctorService.deleteDoctor(leaving.getId());
+
+        assertEquals(APPOINTMENTS, prescriptionArchiver.run());
+        verify(mongoTemplate, times(3)).aggregate(any(Aggregation.class), eq(Prescription.class), eq(Document.class));
+        verify(mongoTemplate, times(3)).remove(any(Query.class), eq(Prescription.class));
+        verify(prescriptionService, times(3)).invalidate(anyCollection());
+        assertTrue(archiveRepository.findAll().stream().noneMatch(ArchivedAppointment::isPrescriptionsPending));
+        assertEquals(0, prescriptionArchiver.run());
+    }
+
+    private static Appointment appointment(Doctor doctor, Patient patient, LocalDate day) {
+        Appointment a = new Appointment();
+        a.setDoctor(doctor);
+        a.setPatient(patient);
+        a.setAppointmentTime(day.atTime(9, 0));
+        return a;
+    }
+
+    private static Doctor doctor(String name) {
+        Schedule morning = new Schedule();
+        morning.setStartTime(LocalTime.of(9, 0));
+        morning.setEndTime(LocalTime.of(12, 0));
+        Doctor d = new Doctor();
+        d.setName("Dr. " + name);
+        d.setSpecialty("Cardiologist");
+        d.setEmail(name + "@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        d.setAvailableTimes(new ArrayList<>(List.of(morning)));
+        return d;
+    }
+
+    private static Patient patient() {
+        Patient p = new Patient();
+        p.setName("Patient One");
+        p.setEmail("patient1@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5550002222");
+        p.setAddress("1 Main Street");
+        return p;
+    }
+}
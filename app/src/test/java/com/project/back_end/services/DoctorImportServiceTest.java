@@ -0,0 +1,183 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorImportReport;
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:doctorimport;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "clinic.doctor-import.chunk-size=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({DoctorImportService.class, DoctorSearchIndex.class, IdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DoctorImportServiceTest {
+
+    @Autowired
+    private DoctorImportService importService;
+
+    @Autowired
+    private DoctorSearchIndex searchIndex;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @BeforeEach
+    void seed() {
+        Doctor existing = new Doctor();
+        existing.setName("Dr. Existing");
+        existing.setSpecialty("Cardiologist");
+        existing.setEmail("existing@clinic.com");
+        existing.setPassword("secret123");
+        existing.setPhone("5550000000");
+        doctorRepository.save(existing);
+        searchIndex.search(null, null, null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        doctorRepository.deleteAll();
+    }
+
+    // Seven rows over three chunks: valid ones land with their schedules, the rest are reported by row number
+    @Test
+    void importsCsvAndReportsRejectedRows() throws Exception {
+        String csv = """
+                name,specialty,email,password,phone,availableTimes
+                Dr. Alpha,Dermatologist,alpha@clinic.com,secret123,5550000001,09:00-12:00;14:00-17:00
+                Dr. Beta,Neurologist,existing@clinic.com,secret123,5550000002,
+                "Dr. Gamma, Jr.",Pediatrician,gamma@clinic.com,secret123,5550000003,08:00-10:00
+                Dr. Delta,Oncologist,not-an-email,123,555,
+                Dr. Alpha Again,Dermatologist,ALPHA@clinic.com,secret123,5550000005,
+                Dr. Epsilon,Cardiologist,epsilon@clinic.com,secret123,5550000006,12:00-09:00
+                Dr. Zeta,Cardiologist,zeta@clinic.com,secret123,5550000007,
+                """;
+        DoctorImportReport report = importService.importDoctors(stream(csv), DoctorImportService.CSV);
+
+        assertEquals(3, report.getCreated());
+        assertEquals(4, report.getFailed());
+        Map<Integer, List<String>> errors = report.getErrors().stream()
+                .collect(Collectors.toMap(DoctorImportReport.RowError::row, DoctorImportReport.RowError::errors));
+        assertEquals(List.of("email: doctor already exists"), errors.get(2));
+        assertEquals(3, errors.get(4).size());
+        assertEquals(List.of("email: duplicated earlier in the file"), errors.get(5));
+        assertTrue(errors.get(6).get(0).startsWith("availableTimes"));
+
+        Doctor alpha = doctorRepository.findByEmail("alpha@clinic.com");
+        assertEquals(2, doctorRepository.findSchedulesByDoctorIdIn(List.of(alpha.getId())).size());
+        assertEquals("Dr. Gamma, Jr.", doctorRepository.findByEmail("gamma@clinic.com").getName());
+        List<DoctorSummary> found = searchIndex.search("gamma", null, "AM");
+        assertEquals(1, found.size());
+        assertEquals(LocalTime.of(8, 0), found.get(0).getAvailableTimes().get(0).getStartTime());
+    }
+
+    @Test
+    void importsJsonLines() throws Exception {
+        String jsonl = """
+                {"name":"Dr. Json","specialty":"Neurologist","email":"json@clinic.com","password":"secret123","phone":"5550000010","availableTimes":[{"startTime":"13:00","endTime":"15:00"}]}
+                {"name":"Dr. Broken",
+                null
+                {"name":"Dr. Existing Two","specialty":"Neurologist","email":"existing@clinic.com","password":"secret123","phone":"5550000011"}
+                """;
+        DoctorImportReport report = importService.importDoctors(stream(jsonl), DoctorImportService.JSONL);
+
+        assertEquals(1, report.getCreated());
+        assertEquals(3, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).row());
+        assertTrue(report.getErrors().get(0).errors().get(0).startsWith("unreadable JSON"));
+        assertEquals(3, report.getErrors().get(1).row());
+        assertEquals(List.of("expected a JSON object"), report.getErrors().get(1).errors());
+        assertEquals(1, searchIndex.search("json", null, "PM").size());
+    }
+
+    // The template column lands in schedule_template, so imported doctors get the same slots as ones created singly
+    @Test
+    void importsScheduleTemplates() throws Exception {
+        String csv = """
+                name,specialty,email,password,phone,availableTimes,scheduleTemplate
+                Dr. Half,Dermatologist,half@clinic.com,secret123,5550000021,09:00-11:00,"{""slotMinutes"":30,""breaks"":[{""startTime"":""10:00"",""endTime"":""10:30""}]}"
+                Dr. Same,Dermatologist,same@clinic.com,secret123,5550000022,09:00-11:00,"{""slotMinutes"":30,""breaks"":[{""startTime"":""10:00"",""endTime"":""10:30""}]}"
+                Dr. Plain,Dermatologist,plain@clinic.com,secret123,5550000023,09:00-11:00,
+                Dr. Tiny,Dermatologist,tiny@clinic.com,secret123,5550000024,09:00-11:00,"{""slotMinutes"":1}"
+                Dr. Backwards,Dermatologist,backwards@clinic.com,secret123,5550000025,09:00-11:00,"{""breaks"":[{""startTime"":""10:30"",""endTime"":""10:00""}]}"
+                Dr. Garbled,Dermatologist,garbled@clinic.com,secret123,5550000026,09:00-11:00,"{""slotMinutes"":"
+                """;
+        DoctorImportReport report = importService.importDoctors(stream(csv), DoctorImportService.CSV);
+
+        assertEquals(3, report.getCreated());
+        Map<Integer, List<String>> errors = report.getErrors().stream()
+                .collect(Collectors.toMap(DoctorImportReport.RowError::row, DoctorImportReport.RowError::errors));
+        assertTrue(errors.get(4).get(0).startsWith("scheduleTemplate.slotMinutes"));
+        assertEquals(List.of("scheduleTemplate: every range needs a start before its end"), errors.get(5));
+        assertTrue(errors.get(6).get(0).startsWith("scheduleTemplate: unreadable JSON"));
+
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        Doctor half = doctorRepository.findWithScheduleByIdIn(List.of(doctorRepository.findByEmail("half@clinic.com").getId())).get(0);
+        assertEquals(30, half.getScheduleTemplate().slotMinutes());
+        // 09:00, 09:30 and 10:30; the 10:00 slot falls in the break
+        assertEquals(3, Arrays.stream(SlotTemplate.of(half).slotsOn(monday)).map(Long::bitCount).sum());
+        assertEquals(half.getScheduleTemplate(), doctorRepository.findByEmail("same@clinic.com").getScheduleTemplate());
+        assertNull(doctorRepository.findByEmail("plain@clinic.com").getScheduleTemplate());
+
+        String jsonl = """
+                {"name":"Dr. Json Template","specialty":"Neurologist","email":"jt@clinic.com","password":"secret123","phone":"5550000027","availableTimes":[{"startTime":"09:00","endTime":"10:00"}],"scheduleTemplate":{"slotMinutes":15}}
+                """;
+        assertEquals(1, importService.importDoctors(stream(jsonl), DoctorImportService.JSONL).getCreated());
+        assertEquals(15, doctorRepository.findByEmail("jt@clinic.com").getScheduleTemplate().slotMinutes());
+    }
+
+    // Writes that bypass DoctorService (another instance, a direct DB write) show up after a refresh
+    @Test
+    void refreshPicksUpWritesMadeElsewhere() {
+        Doctor elsewhere = new Doctor();
+        elsewhere.setName("Dr. Elsewhere");
+        elsewhere.setSpecialty("Oncologist");
+        elsewhere.setEmail("elsewhere@clinic.com");
+        elsewhere.setPassword("secret123");
+        elsewhere.setPhone("5550000030");
+        elsewhere = doctorRepository.save(elsewhere);
+        assertEquals(0, searchIndex.search("elsewhere", null, null).size());
+
+        searchIndex.refresh();
+        assertEquals(1, searchIndex.search("elsewhere", "oncologist", null).size());
+
+        doctorRepository.deleteById(elsewhere.getId());
+        searchIndex.refresh();
+        assertEquals(0, searchIndex.search("elsewhere", null, null).size());
+        assertEquals(1, searchIndex.search("existing", null, null).size());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,119 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorRating;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.PatientFeedBack;
+import com.project.back_end.repo.AppointmentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A feedback whose $inc did not land stays marked pending and is applied later, by the sweeper or a repeated submit
+class DoctorRatingServiceTest {
+
+    private static final long APPOINTMENT_ID = 7L;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final DoctorRatingService service = new DoctorRatingService(mongoTemplate, appointmentRepository);
+
+    @BeforeEach
+    void seed() {
+        Doctor d = new Doctor();
+        d.setId(2L);
+        Patient p = new Patient();
+        p.setId(3L);
+        Appointment a = new Appointment();
+        a.setId(APPOINTMENT_ID);
+        a.setDoctor(d);
+        a.setPatient(p);
+        a.setAppointmentTime(LocalDateTime.now().minusDays(1));
+        when(appointmentRepository.findById(APPOINTMENT_ID)).thenReturn(Optional.of(a));
+        when(mongoTemplate.insert(any(PatientFeedBack.class))).thenAnswer(inv -> {
+            PatientFeedBack f = inv.getArgument(0);
+            f.setId(new ObjectId().toHexString());
+            return f;
+        });
+    }
+
+    @Test
+    void failedIncrementIsAppliedBySweep() {
+        when(incrementTotals()).thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+        PatientFeedBack submitted = feedback();
+        assertEquals(1, service.submitFeedback(3L, submitted));
+        assertEquals(Boolean.TRUE, submitted.getTotalsPending());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(PatientFeedBack.class));
+
+        when(incrementTotals()).thenReturn(totals());
+        when(mongoTemplate.find(any(Query.class), eq(PatientFeedBack.class))).thenReturn(List.of(submitted));
+        service.sweep();
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(PatientFeedBack.class));
+        assertEquals(1, service.rating(2L).getCount());
+    }
+
+    @Test
+    void repeatedSubmitFinishesPendingFeedback() {
+        PatientFeedBack pending = feedback();
+        pending.setId(new ObjectId().toHexString());
+        pending.setDoctorId(2L);
+        pending.setTotalsPending(true);
+        when(mongoTemplate.insert(any(PatientFeedBack.class))).thenThrow(new DuplicateKeyException("appointmentId"));
+        when(mongoTemplate.findOne(any(Query.class), eq(PatientFeedBack.class))).thenReturn(pending);
+        when(incrementTotals()).thenReturn(totals());
+
+        assertEquals(-3, service.submitFeedback(3L, feedback()));
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(DoctorRating.class));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(PatientFeedBack.class));
+    }
+
+    // The upsert colliding on _id while the id is already in the applied list means "counted before"
+    @Test
+    void alreadyAppliedFeedbackIsNotCountedAgain() {
+        when(incrementTotals()).thenThrow(new DuplicateKeyException("_id"));
+        when(mongoTemplate.exists(any(Query.class), eq(DoctorRating.class))).thenReturn(true);
+
+        assertEquals(1, service.submitFeedback(3L, feedback()));
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(DoctorRating.class));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(PatientFeedBack.class));
+    }
+
+    private DoctorRating incrementTotals() {
+        return mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(DoctorRating.class));
+    }
+
+    private static PatientFeedBack feedback() {
+        PatientFeedBack f = new PatientFeedBack();
+        f.setAppointmentId(APPOINTMENT_ID);
+        f.setRating(4);
+        return f;
+    }
+
+    private static DoctorRating totals() {
+        DoctorRating r = new DoctorRating();
+        r.setId(2L);
+        r.setCount(1);
+        r.setSum(4);
+        return r;
+    }
+}
@@ -0,0 +1,94 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.IdGeneratorConfig;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rows written under the old IDENTITY mapping keep their ids, and new ids are handed out past them
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idgenerator;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({IdGeneratorConfig.class, IdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdGeneratorTest {
+
+    private static final int LEGACY_PATIENTS = 120;
+
+    @Autowired
+    private IdGeneratorConfig idGeneratorConfig;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        patientRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void newIdsStartPastExistingRows() {
+        for (long id = 1; id <= LEGACY_PATIENTS; id++) {
+            jdbcTemplate.update("insert into patient (id, name, email, password, phone, address) values (?, ?, ?, ?, ?, ?)",
+                    id, "Legacy " + id, "legacy" + id + "@example.com", "secret123", String.format("557%07d", id),
+                    id + " Old Street");
+        }
+        // Schema creation starts every generator row at zero, far below the existing data
+        assertEquals(0L, nextVal("patient"));
+        idGeneratorConfig.afterSingletonsInstantiated();
+
+        List<Patient> added = new ArrayList<>();
+        for (int i = 0; i < 75; i++) added.add(patient(i));
+        patientRepository.saveAll(added);
+
+        Set<Long> ids = new HashSet<>();
+        for (Patient p : added) {
+            assertTrue(p.getId() > LEGACY_PATIENTS, "id " + p.getId() + " reuses a legacy id");
+            ids.add(p.getId());
+        }
+        assertEquals(added.size(), ids.size());
+        assertEquals(LEGACY_PATIENTS + added.size(), patientRepository.count());
+        // An empty table leaves its row as Hibernate created it
+        assertEquals(0L, nextVal("appointment"));
+        assertEquals(1L, idAllocator.next(Appointment.class));
+    }
+
+    private long nextVal(String entity) {
+        return jdbcTemplate.queryForObject("select next_val from id_generator where entity_name = ?", Long.class, entity);
+    }
+
+    private static Patient patient(int i) {
+        Patient p = new Patient();
+        p.setName("Patient " + i);
+        p.setEmail("new" + i + "@example.com");
+        p.setPassword("secret123");
+        p.setPhone(String.format("558%07d", i));
+        p.setAddress(i + " New Street");
+        return p;
+    }
+}
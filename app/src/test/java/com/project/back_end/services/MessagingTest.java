@@ -0,0 +1,126 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.InvalidCursorException;
+import com.project.back_end.DTO.MessagePageDTO;
+import com.project.back_end.models.Message;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.MessageRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Message paging cursors, the live stream registry and who may message whom, without a Mongo server
+class MessagingTest {
+
+    private static final LocalDateTime SENT = LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_000_000);
+
+    @Test
+    void cursorRoundTrips() {
+        ObjectId id = new ObjectId();
+        MessagePageDTO.Cursor cursor = MessagePageDTO.decodeCursor(MessagePageDTO.encodeCursor(SENT, id.toHexString()));
+        assertEquals(SENT, cursor.getTimestamp());
+        assertEquals(id, cursor.getId());
+
+        assertEquals(MessagePageDTO.END_TIME, MessagePageDTO.decodeCursor(null).getTimestamp());
+        assertThrows(InvalidCursorException.class, () -> MessagePageDTO.decodeCursor("not-a-cursor"));
+    }
+
+    // Seven messages, five of them in the same millisecond: walking pages of two with the repository's
+    // "strictly before (timestamp, id)" rule returns every message exactly once, in order
+    @Test
+    void pagesBreakTimestampTiesById() {
+        List<Message> all = new ArrayList<>();
+        for (int i = 0; i < 7; i++) all.add(message(i < 5 ? SENT : SENT.minusSeconds(i)));
+        Comparator<Message> newestFirst = Comparator.comparing(Message::getTimestamp)
+                .thenComparing(m -> new ObjectId(m.getId())).reversed();
+        all.sort(newestFirst);
+
+        List<Message> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MessagePageDTO.Cursor before = MessagePageDTO.decodeCursor(cursor);
+            List<Message> rows = all.stream().filter(m -> isBefore(m, before)).limit(3).toList();
+            MessagePageDTO page = MessagePageDTO.of(rows, 2);
+            seen.addAll(page.getMessages());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(all, seen);
+    }
+
+    @Test
+    void streamsArePerUserCapped() {
+        MessageStreams streams = new MessageStreams(Runnable::run, new SimpleMeterRegistry(), Duration.ofMinutes(1));
+        for (int i = 0; i < MessageStreams.MAX_STREAMS_PER_USER; i++) assertNotNull(streams.subscribe("patient", 1L));
+        assertNull(streams.subscribe("patient", 1L));
+        assertNotNull(streams.subscribe("patient", 2L));
+        assertNotNull(streams.subscribe("doctor", 1L));
+    }
+
+    @Test
+    void heartbeatRunsOnTheExecutor() {
+        List<Runnable> queued = new ArrayList<>();
+        MessageStreams streams = new MessageStreams(queued::add, new SimpleMeterRegistry(), Duration.ofMinutes(1));
+        streams.subscribe("patient", 1L);
+        streams.subscribe("doctor", 2L);
+
+        streams.heartbeat();
+        // One task per principal; nothing was sent on the calling (scheduler) thread
+        assertEquals(2, queued.size());
+    }
+
+    // Doctor 2 has seen patient 1; patient 3 exists but never had an appointment with doctor 2
+    @Test
+    void onlyParticipantsOfAnAppointmentCanMessage() {
+        MessageRepository messages = mock(MessageRepository.class);
+        DoctorRepository doctors = mock(DoctorRepository.class);
+        PatientRepository patients = mock(PatientRepository.class);
+        AppointmentRepository appointments = mock(AppointmentRepository.class);
+        MessageStreams streams = mock(MessageStreams.class);
+        when(doctors.existsById(2L)).thenReturn(true);
+        when(patients.existsById(1L)).thenReturn(true);
+        when(patients.existsById(3L)).thenReturn(true);
+        when(appointments.existsByDoctorIdAndPatientId(2L, 1L)).thenReturn(true);
+        MessageService service = new MessageService(messages, doctors, patients, appointments,
+                mock(TokenService.class), streams);
+
+        assertEquals(-2, service.sendMessage("doctor", 2L, 3L, "hello"));
+        assertEquals(-2, service.sendMessage("patient", 3L, 2L, "hello"));
+        verify(messages, never()).insert(any(Message.class));
+        verify(streams, never()).publish(any());
+
+        assertEquals(1, service.sendMessage("patient", 1L, 2L, "hello"));
+        assertEquals(1, service.sendMessage("doctor", 2L, 1L, "hello"));
+        verify(streams, times(2)).publish(any());
+    }
+
+    private static boolean isBefore(Message m, MessagePageDTO.Cursor c) {
+        int byTime = m.getTimestamp().compareTo(c.getTimestamp());
+        return byTime < 0 || (byTime == 0 && new ObjectId(m.getId()).compareTo(c.getId()) < 0);
+    }
+
+    private static Message message(LocalDateTime timestamp) {
+        Message m = new Message(1L, 2L, "hello");
+        m.setId(new ObjectId().toHexString());
+        m.setTimestamp(timestamp);
+        return m;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.PatientLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class PatientLogWriterTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int EVENTS_PER_PRODUCER = 5_000;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<Long> stored = new ArrayList<>();
+    private PatientLogWriter writer;
+
+    @BeforeEach
+    void startScheduler() {
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void stop() {
+        if (writer != null) writer.stop();
+        scheduler.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void everyEventIsEitherWrittenInBatchesOrCountedAsDropped() throws Exception {
+        captureInserts();
+        writer = new PatientLogWriter(mongoTemplate, registry, executor::execute, scheduler, 1024, 100, Duration.ofMillis(50));
+        writer.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long base = (long) p * EVENTS_PER_PRODUCER;
+                producers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        writer.record(PatientLog.CHECK_IN, 1L, 2L, base + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : producers) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        writer.stop();
+
+        double written = registry.get("clinic.patient_logs").tag("result", "written").counter().count();
+        double dropped = registry.get("clinic.patient_logs.dropped").counter().count();
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, written + dropped, 0.0);
+        assertEquals(written, stored.size(), 0.0);
+        assertEquals(stored.size(), stored.stream().distinct().count(), "no event may be written twice");
+        assertTrue(batchSizes.stream().allMatch(n -> n <= 100), "batches must respect batch-size");
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterMaxDelay() throws Exception {
+        captureInserts();
+        writer = new PatientLogWriter(mongoTemplate, registry, executor::execute, scheduler, 1024, 100, Duration.ofMillis(50));
+        writer.start();
+        for (long i = 0; i < 3; i++) writer.record(PatientLog.CANCEL, 1L, 2L, i);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (stored.size() < 3 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(List.of(3), batchSizes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void captureInserts() {
+        doAnswer(inv -> {
+            Collection<PatientLog> batch = inv.getArgument(0);
+            synchronized (this) {
+                batchSizes.add(batch.size());
+                for (PatientLog l : batch) stored.add(l.getAppointmentId());
+            }
+            return batch;
+        }).when(mongoTemplate).insert(anyCollection(), eq(PatientLog.class));
+    }
+}
@@ -0,0 +1,237 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.PatientLog;
+import com.project.back_end.models.Payment;
+import com.project.back_end.models.ReconciliationRun;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PaymentRepository;
+import com.project.back_end.repo.ReconciliationRunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payments;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "clinic.payments.reconcile-chunk-size=40"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SimpleMeterRegistry.class, PaymentReconciler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentReconcilerTest {
+
+    private static final int PAYMENTS = 250;
+    private static final int DUE = PAYMENTS / 2;
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private PatientLogWriter patientLogWriter;
+
+    @MockitoBean(name = "applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> paymentIds = new ArrayList<>();
+
+    // Every even payment belongs to a completed appointment and is due for settlement
+    @BeforeEach
+    void seed() {
+        Doctor doctor = doctorRepository.save(doctor());
+        Patient patient = patientRepository.save(patient());
+        LocalDate day = LocalDate.now().plusDays(1);
+        for (int i = 0; i < PAYMENTS; i++) {
+            Appointment a = new Appointment();
+            a.setDoctor(doctor);
+            a.setPatient(patient);
+            a.setAppointmentTime(day.plusDays(i / 8).atTime(9 + i % 8, 0));
+            a.setStatus(i % 2 == 0 ? 1 : 0);
+            Payment p = new Payment();
+            p.setAmount(100);
+            p.setAppointment(appointmentRepository.save(a));
+            paymentIds.add(paymentRepository.save(p).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        runRepository.deleteAllInBatch();
+        paymentRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void settlesCompletedAppointmentsChunkByChunk() {
+        ReconciliationRun run = reconciler.run();
+
+        assertEquals(ReconciliationRun.COMPLETED, run.getStatus());
+        assertEquals(PAYMENTS, run.getScanned());
+        assertEquals(DUE, run.getSettled());
+        assertEquals((PAYMENTS + 39) / 40, run.getChunks());
+        assertEquals(DUE, countWithStatus(Payment.PAID));
+        assertEquals(PAYMENTS - DUE, countWithStatus(Payment.WAIT));
+        verify(patientLogWriter, times(DUE)).record(eq(PatientLog.PAYMENT), any(), any(), any());
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedChunk() {
+        // Fail the third chunk's first settlement (20 due per chunk); the first two chunks stay committed
+        AtomicInteger updates = new AtomicInteger();
+        doAnswer(inv -> {
+            if (updates.incrementAndGet() == 41) throw new IllegalStateException("simulated crash");
+            return inv.callRealMethod();
+        }).when(jdbcTemplate).update(startsWith("update payment"), any(Object[].class));
+        assertNull(reconciler.run());
+
+        ReconciliationRun interrupted = runRepository.findFirstByOrderByIdDesc().orElseThrow();
+        assertEquals(ReconciliationRun.RUNNING, interrupted.getStatus());
+        assertEquals(2, interrupted.getChunks());
+        assertEquals(paymentIds.get(79), interrupted.getLastPaymentId());
+        assertEquals(40, countWithStatus(Payment.PAID));
+        // Only committed chunks are logged
+        verify(patientLogWriter, times(40)).record(eq(PatientLog.PAYMENT), any(), any(), any());
+
+        ReconciliationRun resumed = reconciler.run();
+
+        assertEquals(interrupted.getId(), resumed.getId());
+        assertEquals(ReconciliationRun.COMPLETED, resumed.getStatus());
+        assertEquals(PAYMENTS, resumed.getScanned());
+        assertEquals(DUE, resumed.getSettled());
+        assertEquals(DUE, countWithStatus(Payment.PAID));
+        assertEquals(1, runRepository.count());
+        // Across the crash and the resume every settled payment is logged exactly once
+        verify(patientLogWriter, times(DUE)).record(eq(PatientLog.PAYMENT), any(), any(), any());
+    }
+
+    // A payment another reconciler settles between our read and our update is neither counted nor logged here
+    @Test
+    void paymentSettledElsewhereIsNotLoggedTwice() {
+        AtomicInteger updates = new AtomicInteger();
+        doAnswer(inv -> {
+            if (updates.incrementAndGet() == 1) {
+                // Arguments are the SQL followed by the expanded parameters (status, id, expected status)
+                new JdbcTemplate(jdbcTemplate.getDataSource())
+                        .update("update payment set status = ? where id = ?", Payment.PAID, inv.getArgument(2));
+            }
+            return inv.callRealMethod();
+        }).when(jdbcTemplate).update(startsWith("update payment"), any(Object[].class));
+
+        ReconciliationRun run = reconciler.run();
+
+        assertEquals(DUE - 1, run.getSettled());
+        assertEquals(DUE, countWithStatus(Payment.PAID));
+        verify(patientLogWriter, times(DUE - 1)).record(eq(PatientLog.PAYMENT), any(), any(), any());
+    }
+
+    @Test
+    void concurrentStartsHandOneRunToTheExecutor() throws Exception {
+        int callers = 8;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> started = new ArrayList<>();
+            for (int i = 0; i < callers; i++) started.add(pool.submit(() -> {
+                go.await();
+                return reconciler.start();
+            }));
+            go.countDown();
+            int accepted = 0;
+            for (Future<Boolean> f : started) if (f.get()) accepted++;
+            assertEquals(1, accepted);
+        } finally {
+            pool.shutdownNow();
+        }
+        // Still claimed until the handed-off run finishes, including for the scheduler and direct callers
+        reconciler.scheduledRun();
+        assertNull(reconciler.run());
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskExecutor).execute(task.capture());
+
+        task.getValue().run();
+        assertEquals(DUE, countWithStatus(Payment.PAID));
+        // Released once the run ends; the next start is accepted and run here so the flag is free again
+        assertTrue(reconciler.start());
+        verify(taskExecutor, times(2)).execute(task.capture());
+        task.getValue().run();
+    }
+
+    private long countWithStatus(int status) {
+        return paymentRepository.findAll().stream().filter(p -> p.getStatus() == status).count();
+    }
+
+    private static Doctor doctor() {
+        Doctor d = new Doctor();
+        d.setName("Dr. Ledger");
+        d.setSpecialty("Cardiologist");
+        d.setEmail("ledger@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        return d;
+    }
+
+    private static Patient patient() {
+        Patient p = new Patient();
+        p.setName("Patient One");
+        p.setEmail("patient1@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5550002222");
+        p.setAddress("1 Main Street");
+        return p;
+    }
+}
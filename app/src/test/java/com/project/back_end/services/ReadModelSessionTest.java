@@ -0,0 +1,177 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Entity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+
+// With open-in-view off, every read path must hand controllers fully materialized read models.
+// Results are serialized here with no session open, so any lazy load left in them fails the test.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:readmodels;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SimpleMeterRegistry.class, Service.class, DoctorService.class, PatientService.class, AppointmentService.class,
+        AvailabilityIndex.class, DoctorSearchIndex.class, IdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadModelSessionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Autowired
+    private Service sharedService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private PatientLogWriter patientLogWriter;
+
+    @MockitoBean
+    private DoctorRatingService doctorRatingService;
+
+    @MockitoBean
+    private PrescriptionArchiver prescriptionArchiver;
+
+    private Doctor doctor;
+    private Patient patient;
+    private LocalDate day;
+
+    @BeforeEach
+    void seed() {
+        doctor = doctorRepository.save(doctor());
+        patient = patientRepository.save(patient());
+        day = LocalDate.now().plusDays(1);
+        Appointment a = new Appointment();
+        a.setDoctor(doctor);
+        a.setPatient(patient);
+        a.setAppointmentTime(day.atTime(9, 0));
+        appointmentRepository.save(a);
+        when(tokenService.validateToken("patient-token", "patient")).thenReturn(true);
+        when(tokenService.extractPrincipalId("patient-token")).thenReturn(patient.getId());
+        when(tokenService.extractEmail("patient-token")).thenReturn(patient.getEmail());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void openInViewIsDisabled() throws Exception {
+        var props = PropertiesLoaderUtils.loadAllProperties("application.properties");
+        assertEquals("false", props.getProperty("spring.jpa.open-in-view"));
+    }
+
+    @Test
+    void doctorReadModelsSerializeWithoutSession() throws Exception {
+        assertReadModel(doctorService.getDoctors(Pageable.unpaged(Sort.by("id"))).getContent());
+        assertReadModel(sharedService.filterDoctor("stress", "AM", null));
+        assertReadModel(doctorService.getDoctorAvailabilitySlots(doctor.getId(), day));
+        assertReadModel(doctorService.getAvailabilityRange(List.of(doctor.getId()), null, day, day.plusDays(2)));
+    }
+
+    @Test
+    void patientAndAppointmentReadModelsSerializeWithoutSession() throws Exception {
+        assertReadModel(patientService.getPatientDetails("patient-token"));
+        assertReadModel(patientService.getPatientAppointment(patient.getId(), null, 10));
+        assertReadModel(sharedService.filterPatient("future", "stress", "patient-token", null, 10));
+        assertReadModel(appointmentService.getAppointments(doctor.getId(), day, null));
+    }
+
+    // Jackson walks every getter, so an uninitialized proxy or collection throws LazyInitializationException
+    private void assertReadModel(Object result) throws Exception {
+        objectMapper.writeValueAsString(result);
+        assertNoEntities(result);
+    }
+
+    private static void assertNoEntities(Object value) {
+        if (value == null) return;
+        if (value instanceof Collection<?> c) {
+            c.forEach(ReadModelSessionTest::assertNoEntities);
+            return;
+        }
+        if (value instanceof Map<?, ?> m) {
+            m.values().forEach(ReadModelSessionTest::assertNoEntities);
+            return;
+        }
+        assertFalse(value.getClass().isAnnotationPresent(Entity.class),
+                value.getClass().getSimpleName() + " entity leaked out of the service layer");
+    }
+
+    private static Doctor doctor() {
+        Schedule morning = new Schedule();
+        morning.setStartTime(LocalTime.of(9, 0));
+        morning.setEndTime(LocalTime.of(12, 0));
+        Doctor d = new Doctor();
+        d.setName("Dr. Stress");
+        d.setSpecialty("Cardiologist");
+        d.setEmail("stress@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        d.setAvailableTimes(new ArrayList<>(List.of(morning)));
+        return d;
+    }
+
+    private static Patient patient() {
+        Patient p = new Patient();
+        p.setName("Patient One");
+        p.setEmail("patient1@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5550002222");
+        p.setAddress("1 Main Street");
+        return p;
+    }
+}
@@ -0,0 +1,166 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Schedule;
+import com.project.back_end.models.ScheduleTemplate;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Templates survive the JSON column, compile to the expected slots and are shared between doctors
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scheduletemplate;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "clinic.availability.day-ttl=PT0.3S"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AvailabilityIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScheduleTemplateTest {
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final LocalDate monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    private final LocalDate holiday = monday.plusDays(2);
+    private Doctor templated;
+    private Doctor hourly;
+
+    // 30 minute slots 09:00-13:00 with a 10:30-11:00 break; Saturday mornings only, Sundays off,
+    // and one Wednesday reduced to 14:00-15:00
+    @BeforeEach
+    void seed() {
+        ScheduleTemplate template = new ScheduleTemplate(30,
+                List.of(range(10, 30, 11, 0)),
+                Map.of(DayOfWeek.SATURDAY, List.of(range(9, 0, 10, 0)), DayOfWeek.SUNDAY, List.of()),
+                Map.of(holiday, List.of(range(14, 0, 15, 0))));
+        templated = doctorRepository.save(doctor("templated", template));
+        hourly = doctorRepository.save(doctor("hourly", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void templateDrivesSlots() {
+        Patient p = new Patient();
+        p.setName("Patient One");
+        p.setEmail("patient1@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5550002222");
+        p.setAddress("1 Main Street");
+        p = patientRepository.save(p);
+        Appointment a = new Appointment();
+        a.setDoctor(templated);
+        a.setPatient(p);
+        a.setAppointmentTime(monday.atTime(9, 30));
+        appointmentRepository.save(a);
+
+        assertEquals(times("09:00", "10:00", "11:00", "11:30", "12:00", "12:30"),
+                availabilityIndex.availableSlots(templated.getId(), monday));
+        assertEquals(times("14:00", "14:30"), availabilityIndex.availableSlots(templated.getId(), holiday));
+        assertEquals(times("09:00", "09:30"), availabilityIndex.availableSlots(templated.getId(), monday.plusDays(5)));
+        assertEquals(List.of(), availabilityIndex.availableSlots(templated.getId(), monday.plusDays(6)));
+        assertEquals(1, availabilityIndex.checkSlot(templated.getId(), monday, LocalTime.of(11, 30)));
+        assertEquals(0, availabilityIndex.checkSlot(templated.getId(), monday, LocalTime.of(10, 30)));
+
+        // No template: hourly slots over availableTimes, as before templates existed
+        assertEquals(times("09:00", "10:00", "11:00", "12:00"), availabilityIndex.availableSlots(hourly.getId(), monday));
+    }
+
+    @Test
+    void compiledTemplatesAreShared() {
+        Doctor reloaded = doctorRepository.findWithScheduleByIdIn(List.of(templated.getId())).get(0);
+        assertEquals(templated.getScheduleTemplate(), reloaded.getScheduleTemplate());
+        SlotTemplate compiled = SlotTemplate.of(reloaded);
+        assertSame(compiled, SlotTemplate.of(templated));
+        // Tuesday and Thursday have no variation, so they are the same array
+        assertSame(compiled.slotsOn(monday.plusDays(1)), compiled.slotsOn(monday.plusDays(3)));
+    }
+
+    // Another instance books and then cancels 09:00: the cached day picks each change up once it expires
+    @Test
+    void cachedDaysExpireToPickUpOtherInstancesBookings() throws InterruptedException {
+        Patient p = new Patient();
+        p.setName("Patient Two");
+        p.setEmail("patient2@example.com");
+        p.setPassword("secret123");
+        p.setPhone("5550002223");
+        p.setAddress("2 Main Street");
+        p = patientRepository.save(p);
+        assertEquals(1, availabilityIndex.checkSlot(hourly.getId(), monday, LocalTime.of(9, 0)));
+
+        Appointment a = new Appointment();
+        a.setDoctor(hourly);
+        a.setPatient(p);
+        a.setAppointmentTime(monday.atTime(9, 0));
+        a = appointmentRepository.save(a);
+        assertEquals(1, availabilityIndex.checkSlot(hourly.getId(), monday, LocalTime.of(9, 0)));
+        Thread.sleep(400);
+        assertEquals(0, availabilityIndex.checkSlot(hourly.getId(), monday, LocalTime.of(9, 0)));
+
+        appointmentRepository.delete(a);
+        Thread.sleep(400);
+        assertEquals(1, availabilityIndex.checkSlot(hourly.getId(), monday, LocalTime.of(9, 0)));
+    }
+
+    private static Doctor doctor(String name, ScheduleTemplate template) {
+        Doctor d = new Doctor();
+        d.setName("Dr. " + name);
+        d.setSpecialty("Cardiologist");
+        d.setEmail(name + "@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        d.setAvailableTimes(new ArrayList<>(List.of(range(9, 0, 13, 0))));
+        d.setScheduleTemplate(template);
+        return d;
+    }
+
+    private static Schedule range(int fromHour, int fromMinute, int toHour, int toMinute) {
+        Schedule s = new Schedule();
+        s.setStartTime(LocalTime.of(fromHour, fromMinute));
+        s.setEndTime(LocalTime.of(toHour, toMinute));
+        return s;
+    }
+
+    private static List<LocalTime> times(String... values) {
+        List<LocalTime> times = new ArrayList<>();
+        for (String v : values) times.add(LocalTime.parse(v));
+        return times;
+    }
+}
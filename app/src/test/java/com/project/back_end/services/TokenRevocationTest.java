@@ -0,0 +1,113 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Revocations live in token_epoch, so they survive a restart, and a deleted principal's tokens stop working
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tokenrevocation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "clinic.tokens.epoch-ttl=PT1H"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SimpleMeterRegistry.class, TokenService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationTest {
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private Doctor doctor;
+
+    @BeforeEach
+    void seed() {
+        Doctor d = new Doctor();
+        d.setName("Dr. Epoch");
+        d.setSpecialty("Cardiologist");
+        d.setEmail("epoch@clinic.com");
+        d.setPassword("secret123");
+        d.setPhone("5550001111");
+        d.setAvailableTimes(new ArrayList<>());
+        doctor = doctorRepository.save(d);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void revokedTokensStayRevokedAfterRestart() {
+        String before = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+        assertTrue(tokenService.validateToken(before, "doctor"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> tokenService.revokeTokens("doctor", doctor.getId()));
+        assertFalse(tokenService.validateToken(before, "doctor"));
+        String after = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+
+        TokenService restarted = restart();
+        assertFalse(restarted.validateToken(before, "doctor"));
+        assertTrue(restarted.validateToken(after, "doctor"));
+    }
+
+    @Test
+    void rolledBackRevocationKeepsTokensValid() {
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            tokenService.revokeTokens("doctor", doctor.getId());
+            throw new IllegalStateException("update failed");
+        }));
+        assertTrue(tokenService.validateToken(token, "doctor"));
+    }
+
+    @Test
+    void deletedPrincipalsTokensAreRejected() {
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+        assertTrue(tokenService.validateToken(token, "doctor"));
+
+        doctorRepository.deleteById(doctor.getId());
+        assertFalse(restart().validateToken(token, "doctor"));
+    }
+
+    private TokenService restart() {
+        return new TokenService(adminRepository, doctorRepository, patientRepository, jwtSecret,
+                Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+}